@@ -0,0 +1,70 @@
+package dev.yogi.server.manager.benchmark;
+
+import dev.yogi.server.manager.ServerManagerApplication;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerType;
+import dev.yogi.server.manager.model.Status;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots the real application against an in-memory H2 database so benchmarks run offline
+ * and every run starts from the same empty schema.
+ */
+final class BenchmarkApplication {
+
+    private static final String[] ARGS = {
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.database=h2",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.show-sql=false",
+            "--spring.flyway.enabled=false",
+            "--spring.profiles.active=benchmark",
+            "--server-manager.health-check.enabled=false",
+            "--server-manager.cache.cluster-invalidation.enabled=false",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=warn"
+    };
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        SpringApplication application = new SpringApplication(ServerManagerApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        return application.run(ARGS);
+    }
+
+    /**
+     * Starts the application with its web server on a random port, the extra arguments override the defaults.
+     */
+    static ConfigurableApplicationContext startWeb(String... args) {
+        String[] combined = Arrays.copyOf(ARGS, ARGS.length + args.length + 1);
+        combined[ARGS.length] = "--server.port=0";
+        System.arraycopy(args, 0, combined, ARGS.length + 1, args.length);
+        return new SpringApplication(ServerManagerApplication.class).run(combined);
+    }
+
+    static List<Server> servers(int count) {
+        List<Server> servers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            servers.add(Server.builder()
+                    .ipAddress("10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255))
+                    .name("server-" + i)
+                    .memoryBytes(DataSize.ofGigabytes(i % 64 + 1).toBytes())
+                    .type(i % 2 == 0 ? ServerType.LINUX : ServerType.WINDOWS)
+                    .status(i % 3 == 0 ? Status.SERVER_DOWN : Status.SERVER_UP)
+                    .build());
+        }
+        return servers;
+    }
+}
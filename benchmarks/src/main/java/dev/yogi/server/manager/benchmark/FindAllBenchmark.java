@@ -0,0 +1,75 @@
+package dev.yogi.server.manager.benchmark;
+
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerConnection;
+import dev.yogi.server.manager.service.ServerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page reads at increasing depth over a 100k row table, comparing offset paging of
+ * {@link ServerService#findAll(int, int)} with the keyset paging behind {@code serversConnection}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindAllBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"0", "100", "500", "990"})
+    private int page;
+
+    @Param({"100"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private ServerService serverService;
+    private String after;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start();
+        serverService = context.getBean(ServerService.class);
+        serverService.saveAll(BenchmarkApplication.servers(ROWS));
+
+        // cursor of the last row on the previous page, so both strategies read the same rows
+        after = null;
+        for (int i = 0; i < page; i++) {
+            after = serverService.findConnection(size, after).getPageInfo().getEndCursor();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Server> offset() {
+        return serverService.findAll(page, size);
+    }
+
+    @Benchmark
+    public ServerConnection keyset() {
+        return serverService.findConnection(size, after);
+    }
+}
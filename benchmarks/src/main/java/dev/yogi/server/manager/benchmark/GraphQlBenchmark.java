@@ -0,0 +1,71 @@
+package dev.yogi.server.manager.benchmark;
+
+import dev.yogi.server.manager.service.ServerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end execution of the {@code findAllServers} query through the GraphQL engine:
+ * parsing, validation, data fetching and result serialization to maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQlBenchmark {
+
+    private static final String QUERY = "query ($page: Int, $size: Int) { "
+            + "findAllServers(page: $page, size: $size) { id ipAddress name memory type status } }";
+
+    @Param({"20", "100", "500"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private ExecutionGraphQlService graphQlService;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start();
+        context.getBean(ServerService.class).saveAll(BenchmarkApplication.servers(10_000));
+        graphQlService = context.getBean(ExecutionGraphQlService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findAllServers() {
+        Map<String, Object> variables = Map.of("page", 0, "size", size);
+        DefaultExecutionGraphQlRequest request = new DefaultExecutionGraphQlRequest(
+                QUERY, null, variables, Collections.emptyMap(), String.valueOf(counter++), null);
+        ExecutionGraphQlResponse response = graphQlService.execute(request).block();
+        if (!response.getErrors().isEmpty()) {
+            throw new IllegalStateException("findAllServers failed: " + response.getErrors());
+        }
+        return response.getData();
+    }
+}
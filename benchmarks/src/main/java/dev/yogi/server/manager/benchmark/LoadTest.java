@@ -0,0 +1,189 @@
+package dev.yogi.server.manager.benchmark;
+
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.service.ServerService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Mixed workload over HTTP: clients pinging unreachable servers, each ping blocks its request for
+ * the ping timeout, next to clients reading pages of servers. Runs once on the Tomcat worker pool
+ * and once on virtual threads and reports the latency percentiles of both kinds of request.
+ *
+ * <p>usage: LoadTest [seconds] [ping clients] [read clients]
+ */
+public final class LoadTest {
+
+    private static final int SERVERS = 5000;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final String READ = "{ findAllServers(page: 0, size: 20) { id ipAddress name status } }";
+    private static final String PING = "{ pingServer(ipAddress: \\\"%s\\\", force: true) { status } }";
+
+    private final List<String> ipAddresses = BenchmarkApplication.servers(SERVERS).stream()
+            .map(Server::getIpAddress)
+            .collect(Collectors.toList());
+    private final Duration duration;
+    private final int pingClients;
+    private final int readClients;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private LoadTest(Duration duration, int pingClients, int readClients) {
+        this.duration = duration;
+        this.pingClients = pingClients;
+        this.readClients = readClients;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Duration duration = Duration.ofSeconds(args.length > 0 ? Integer.parseInt(args[0]) : 20);
+        int pingClients = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int readClients = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        LoadTest loadTest = new LoadTest(duration, pingClients, readClients);
+
+        List<String> results = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            results.add(loadTest.run(virtualThreads));
+        }
+        Path result = Path.of("target", "load-test-result.json");
+        Files.createDirectories(result.getParent());
+        Files.writeString(result, "[\n" + String.join(",\n", results) + "\n]\n");
+        System.out.println("Results written to " + result);
+        System.exit(0);
+    }
+
+    private String run(boolean virtualThreads) throws InterruptedException {
+        String mode = virtualThreads ? "virtual" : "platform";
+        ConfigurableApplicationContext context = BenchmarkApplication.startWeb(
+                "--server-manager.virtual-threads.enabled=" + virtualThreads,
+                "--server-manager.ping.timeout=1s",
+                // every ping reaches the probe, none is turned away by the limiter
+                "--server-manager.ping.rate-limit=100000",
+                "--server-manager.ping.rate-limit-burst=100000",
+                // probes still running when Tomcat stops are expected here
+                "--logging.level.org.apache.catalina.loader=error");
+        try {
+            context.getBean(ServerService.class).saveAll(BenchmarkApplication.servers(SERVERS));
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/graphql");
+
+            // reads only, until the code paths are compiled
+            drive(uri, 0, readClients, WARMUP);
+            Latencies latencies = drive(uri, pingClients, readClients, duration);
+
+            String reads = latencies.reads.summary();
+            String pings = latencies.pings.summary();
+            System.out.printf("%-8s reads %s%n%-8s pings %s%n", mode, reads, "", pings);
+            return String.format(Locale.ROOT, "  { \"mode\": \"%s\", \"pingClients\": %d, \"readClients\": %d, "
+                            + "\"seconds\": %d, \"reads\": %s, \"pings\": %s }",
+                    mode, pingClients, readClients, duration.toSeconds(), latencies.reads.json(), latencies.pings.json());
+        } finally {
+            context.close();
+        }
+    }
+
+    private Latencies drive(URI uri, int pingClients, int readClients, Duration duration) throws InterruptedException {
+        Latencies latencies = new Latencies();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < pingClients; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    String ipAddress = ipAddresses.get(ThreadLocalRandom.current().nextInt(SERVERS));
+                    send(uri, String.format(PING, ipAddress), latencies.pings);
+                }
+            });
+        }
+        for (int i = 0; i < readClients; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    send(uri, READ, latencies.reads);
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        return latencies;
+    }
+
+    private void send(URI uri, String query, Samples samples) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"query\": \"" + query + "\"}"))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean ok = response.statusCode() == 200 && !response.body().contains("\"errors\"");
+            samples.record(System.nanoTime() - start, ok);
+        } catch (IOException e) {
+            samples.record(System.nanoTime() - start, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Latencies {
+        private final Samples reads = new Samples();
+        private final Samples pings = new Samples();
+    }
+
+    private static class Samples {
+        private final ConcurrentLinkedQueue<Long> nanos = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger errors = new AtomicInteger();
+
+        private void record(long elapsed, boolean ok) {
+            nanos.add(elapsed);
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        private double[] percentiles() {
+            long[] sorted = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (sorted.length == 0) {
+                return new double[4];
+            }
+            return new double[]{
+                    millis(sorted[(int) (sorted.length * 0.50)]),
+                    millis(sorted[(int) (sorted.length * 0.95)]),
+                    millis(sorted[(int) (sorted.length * 0.99)]),
+                    millis(sorted[sorted.length - 1])};
+        }
+
+        private String summary() {
+            double[] p = percentiles();
+            return String.format(Locale.ROOT, "count %6d, errors %5d, p50 %8.1f ms, p95 %8.1f ms, p99 %8.1f ms, max %8.1f ms",
+                    nanos.size(), errors.get(), p[0], p[1], p[2], p[3]);
+        }
+
+        private String json() {
+            double[] p = percentiles();
+            return String.format(Locale.ROOT, "{ \"count\": %d, \"errors\": %d, \"p50\": %.1f, \"p95\": %.1f, \"p99\": %.1f, \"max\": %.1f }",
+                    nanos.size(), errors.get(), p[0], p[1], p[2], p[3]);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dev.yogi.server.manager.benchmark;
+
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.repository.ServerRepository;
+import dev.yogi.server.manager.service.ServerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk insert throughput of {@link ServerService#saveAll(List)}, one batch per measured call
+ * into an emptied table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SaveAllBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ServerService serverService;
+    private ServerRepository serverRepository;
+    private List<Server> servers;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start();
+        serverService = context.getBean(ServerService.class);
+        serverRepository = context.getBean(ServerRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        serverRepository.deleteAllInBatch();
+        servers = BenchmarkApplication.servers(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Server> saveAll() {
+        serverService.saveAll(servers);
+        return servers;
+    }
+}
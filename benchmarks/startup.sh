@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+# Measures cold start time and resident memory of the packaged application.
+#
+# usage: benchmarks/startup.sh [runs] [application arguments...]
+#
+# Starts the executable jar (or APP_CMD, e.g. a native image) once per run, waits for the
+# "Started ... in N seconds" line, samples the resident set size and stops it again.
+# Results are printed and written to target/startup-result.json.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+shift || true
+if [ -z "${APP_CMD:-}" ]; then
+  JAR=$(ls target/server-manager-*-exec.jar 2>/dev/null | head -1 || true)
+  if [ -z "$JAR" ]; then
+    echo "Build the application first: mvn package -DskipTests" >&2
+    exit 1
+  fi
+  APP_CMD="java ${JAVA_OPTS:-} -jar $JAR"
+fi
+
+STARTS=()
+RSS=()
+for run in $(seq 1 "$RUNS"); do
+  log=$(mktemp)
+  # shellcheck disable=SC2086
+  $APP_CMD --server.port=0 "$@" >"$log" 2>&1 &
+  pid=$!
+
+  for _ in $(seq 1 240); do
+    if grep -q "Started ServerManagerApplication\|APPLICATION FAILED" "$log" || ! kill -0 "$pid" 2>/dev/null; then
+      break
+    fi
+    sleep 0.25
+  done
+  started=$(sed -n 's/.*Started ServerManagerApplication in \([0-9.]*\) seconds.*/\1/p' "$log")
+  if [ -z "$started" ]; then
+    echo "Run $run did not start, see $log" >&2
+    kill "$pid" 2>/dev/null || true
+    exit 1
+  fi
+  rss_kb=$(ps -o rss= -p "$pid" | tr -d ' ')
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+
+  STARTS+=("$started")
+  RSS+=("$((rss_kb / 1024))")
+  echo "run $run: started in ${started}s, rss ${RSS[-1]} MB"
+done
+
+summary() {
+  printf '%s\n' "$@" | sort -n | awk '{ v[NR] = $1; sum += $1 } END { printf "%.2f %.2f %.2f", sum / NR, v[1], v[NR] }'
+}
+read -r start_mean start_min start_max <<<"$(summary "${STARTS[@]}")"
+read -r rss_mean rss_min rss_max <<<"$(summary "${RSS[@]}")"
+echo "startup seconds mean ${start_mean}, min ${start_min}, max ${start_max}"
+echo "rss MB          mean ${rss_mean}, min ${rss_min}, max ${rss_max}"
+
+mkdir -p target
+cat >target/startup-result.json <<EOF
+{
+  "runs": ${RUNS},
+  "startupSeconds": { "mean": ${start_mean}, "min": ${start_min}, "max": ${start_max} },
+  "rssMegabytes": { "mean": ${rss_mean}, "min": ${rss_min}, "max": ${rss_max} }
+}
+EOF
@@ -2,18 +2,23 @@ package dev.yogi.server.manager.configuration;
 
 import com.github.javafaker.Faker;
 import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerType;
 import dev.yogi.server.manager.model.Status;
 import dev.yogi.server.manager.service.ServerService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
 
 import java.util.ArrayList;
 import java.util.List;
 
-
+/**
+ * Seeds the database with random servers, only in the dev profile so other profiles never load Faker.
+ */
 @Configuration
+@Profile("dev")
 public class DataConfiguration {
 
     @Bean
@@ -22,7 +27,6 @@ public class DataConfiguration {
     }
 
     @Bean
-    @Profile("dev")
     public CommandLineRunner commandLineRunner(ServerService serverService, Faker faker) {
         return arg -> {
             List<Server> servers = new ArrayList<>();
@@ -36,9 +40,9 @@ public class DataConfiguration {
                 servers.add(Server.builder()
                         .name(faker.internet().domainName())
                         .ipAddress(faker.internet().ipV4Address())
-                        .memory(faker.number().numberBetween(2, 64L) + " GB")
+                        .memoryBytes(DataSize.ofGigabytes(faker.number().numberBetween(2, 64L)).toBytes())
                         .status((serverStatus[faker.random().nextInt(serverStatus.length)]))
-                        .type(faker.random().nextBoolean() ? "Linux" : "Windows")
+                        .type(faker.random().nextBoolean() ? ServerType.LINUX : ServerType.WINDOWS)
                         .build()
                 );
 
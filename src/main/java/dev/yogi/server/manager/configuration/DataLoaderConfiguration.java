@@ -0,0 +1,35 @@
+package dev.yogi.server.manager.configuration;
+
+import dev.yogi.server.manager.metrics.StatementCounter;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.service.ServerService;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registers the per-request DataLoaders, so that all lookups of one GraphQL request
+ * are resolved with a single query per loader.
+ */
+@Configuration
+public class DataLoaderConfiguration {
+
+    public static final String SERVER_BY_ID = "serverById";
+    public static final String SERVER_BY_IP_ADDRESS = "serverByIpAddress";
+
+    public DataLoaderConfiguration(BatchLoaderRegistry registry, ServerService serverService, ServerManagerProperties properties,
+                                   StatementCounter statementCounter) {
+        int maxBatchSize = properties.getBulk().getChunkSize();
+
+        // batches are loaded after the data fetchers returned, their statements count towards the request too
+        registry.<Long, Server>forName(SERVER_BY_ID)
+                .withOptions(options -> options.setMaxBatchSize(maxBatchSize))
+                .registerMappedBatchLoader((ids, env) -> Mono.fromCallable(() ->
+                        statementCounter.callWithin(env.getContext(), () -> serverService.findAllByIds(ids))));
+
+        registry.<String, Server>forName(SERVER_BY_IP_ADDRESS)
+                .withOptions(options -> options.setMaxBatchSize(maxBatchSize))
+                .registerMappedBatchLoader((ipAddresses, env) -> Mono.fromCallable(() ->
+                        statementCounter.callWithin(env.getContext(), () -> serverService.findAllByIpAddresses(ipAddresses))));
+    }
+}
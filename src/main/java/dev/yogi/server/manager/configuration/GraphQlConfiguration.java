@@ -0,0 +1,52 @@
+package dev.yogi.server.manager.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yogi.server.manager.graphql.DocumentCache;
+import dev.yogi.server.manager.graphql.PersistedQueryRequestFilter;
+import dev.yogi.server.manager.metrics.QueryCostInstrumentation;
+import graphql.scalars.ExtendedScalars;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.graphql.GraphQlProperties;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+@Configuration
+public class GraphQlConfiguration {
+
+    @Bean
+    public RuntimeWiringConfigurer scalarsConfigurer() {
+        // byte counts overflow the 32 bit GraphQL Int
+        return wiring -> wiring.scalar(ExtendedScalars.GraphQLLong);
+    }
+
+    @Bean
+    public QueryCostInstrumentation queryCostInstrumentation(ServerManagerProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        ServerManagerProperties.Graphql graphql = properties.getGraphql();
+        return new QueryCostInstrumentation(graphql.getMaxCost(), graphql.getMaxPageSize(),
+                graphql.getFieldCosts(), meterRegistry);
+    }
+
+    @Bean
+    public DocumentCache documentCache(ServerManagerProperties properties) {
+        ServerManagerProperties.Graphql graphql = properties.getGraphql();
+        return new DocumentCache(graphql.getDocumentCacheSize(), graphql.getPersistedQueryCacheSize());
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer documentCacheCustomizer(DocumentCache documentCache) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentCache));
+    }
+
+    @Bean
+    public FilterRegistrationBean<PersistedQueryRequestFilter> persistedQueryRequestFilter(ObjectMapper objectMapper,
+                                                                                           GraphQlProperties graphQlProperties) {
+        FilterRegistrationBean<PersistedQueryRequestFilter> registration =
+                new FilterRegistrationBean<>(new PersistedQueryRequestFilter(objectMapper, graphQlProperties.getPath()));
+        registration.addUrlPatterns(graphQlProperties.getPath());
+        return registration;
+    }
+}
@@ -0,0 +1,28 @@
+package dev.yogi.server.manager.configuration;
+
+import dev.yogi.server.manager.metrics.StatementCountInstrumentation;
+import dev.yogi.server.manager.metrics.StatementCounter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public StatementCountInstrumentation statementCountInstrumentation(StatementCounter statementCounter,
+                                                                       MeterRegistry meterRegistry) {
+        return new StatementCountInstrumentation(statementCounter, meterRegistry);
+    }
+}
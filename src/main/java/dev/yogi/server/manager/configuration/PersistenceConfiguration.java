@@ -0,0 +1,83 @@
+package dev.yogi.server.manager.configuration;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.yogi.server.manager.datasource.FairDataSource;
+import dev.yogi.server.manager.datasource.ReadAfterWriteGuard;
+import dev.yogi.server.manager.datasource.ReplicaRoutingDataSource;
+import dev.yogi.server.manager.metrics.StatementCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.PlatformTransactionManagerCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Configuration
+public class PersistenceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Sends read-only transactions to the replicas in {@code server-manager.replicas.urls}, everything
+     * else to the primary. The replicas share the pool settings of the primary.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                             ServerManagerProperties properties,
+                                                             ReadAfterWriteGuard readAfterWriteGuard) throws SQLException {
+        HikariDataSource primary = primaryDataSource.unwrap(HikariDataSource.class);
+        List<String> urls = properties.getReplicas().getUrls();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(urls.get(i));
+            config.setReadOnly(true);
+            // start even when the replica is down, reads fall back to the primary meanwhile
+            config.setInitializationFailTimeout(-1);
+            // pool metrics are registered when the routing data source is bound to the registry
+            config.setMetricRegistry(null);
+            config.setMetricsTrackerFactory(null);
+            HikariDataSource replica = new HikariDataSource(config);
+            // check if the primary hands out connections in arrival order, the replicas must too
+            replicas.put(config.getPoolName(),
+                    primaryDataSource.isWrapperFor(FairDataSource.class) ? FairDataSource.of(replica) : replica);
+        }
+        log.info("Routing read-only transactions to {} replicas", replicas.size());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readAfterWriteGuard,
+                properties.getReplicas().getRetryDelay());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource, StatementCounter statementCounter) {
+        // connections are fetched at the first statement, once the transaction's read-only flag is known
+        return new LazyConnectionDataSourceProxy(statementCounter.wrap(replicaRoutingDataSource));
+    }
+
+    @Bean
+    public PlatformTransactionManagerCustomizer<JpaTransactionManager> transactionSynchronizationCustomizer() {
+        // without a transaction every repository call gets its own entity manager, a NOT_SUPPORTED
+        // method like a ping would otherwise hold one, and its connection, until the probe returns
+        return transactionManager -> transactionManager.setTransactionSynchronization(
+                AbstractPlatformTransactionManager.SYNCHRONIZATION_ON_ACTUAL_TRANSACTION);
+    }
+}
@@ -0,0 +1,81 @@
+package dev.yogi.server.manager.configuration;
+
+import dev.yogi.server.manager.probe.CoalescingProbeStrategy;
+import dev.yogi.server.manager.probe.InetAddressProbeStrategy;
+import dev.yogi.server.manager.probe.MeteredProbeStrategy;
+import dev.yogi.server.manager.probe.ProbeStrategy;
+import dev.yogi.server.manager.probe.RateLimitedProbeStrategy;
+import dev.yogi.server.manager.probe.TcpConnectProbeStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Configuration
+public class PingConfiguration {
+
+    @Bean(destroyMethod = "shutdownNow")
+    @Primary
+    public ExecutorService pingExecutor(ServerManagerProperties properties) {
+        return Executors.newFixedThreadPool(properties.getPing().getParallelism(), threadFactory("ping-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService interactivePingExecutor(ServerManagerProperties properties) {
+        return Executors.newFixedThreadPool(properties.getPing().getInteractiveParallelism(), threadFactory("interactive-ping-"));
+    }
+
+    @Bean
+    @Primary
+    public ProbeStrategy probeStrategy(ServerManagerProperties properties, ExecutorService pingExecutor,
+                                       MeterRegistry meterRegistry) {
+        ServerManagerProperties.Probe probe = properties.getProbe();
+        log.info("Using {} probe strategy", probe.getStrategy());
+        String name = probe.getStrategy().name().toLowerCase().replace('_', '-');
+        return new MeteredProbeStrategy(createProbeStrategy(probe, pingExecutor, probe.getMaxInFlight()), meterRegistry, name);
+    }
+
+    /**
+     * Probes behind single server pings, coalesced per host and rate limited across hosts. They run on
+     * their own executor or selector, so a ping never queues behind a fleet sweep or the health check.
+     */
+    @Bean
+    public CoalescingProbeStrategy pingProbeStrategy(ServerManagerProperties properties, ExecutorService interactivePingExecutor,
+                                                     MeterRegistry meterRegistry) {
+        ServerManagerProperties.Ping ping = properties.getPing();
+        ServerManagerProperties.Probe probe = properties.getProbe();
+        String name = probe.getStrategy().name().toLowerCase().replace('_', '-');
+        ProbeStrategy interactive = new MeteredProbeStrategy(createProbeStrategy(probe, interactivePingExecutor,
+                ping.getInteractiveParallelism()), meterRegistry, name);
+        ProbeStrategy rateLimited = new RateLimitedProbeStrategy(interactive, ping.getRateLimit(),
+                ping.getRateLimitBurst(), ping.getRateLimitMaxWait());
+        return new CoalescingProbeStrategy(rateLimited, ping.getRecentResultTtl(), meterRegistry);
+    }
+
+    private static ProbeStrategy createProbeStrategy(ServerManagerProperties.Probe probe, ExecutorService executor,
+                                                     int maxInFlight) {
+        switch (probe.getStrategy()) {
+            case TCP_CONNECT:
+                return new TcpConnectProbeStrategy(probe.getPorts(), maxInFlight);
+            case INET_ADDRESS:
+            default:
+                return new InetAddressProbeStrategy(executor);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
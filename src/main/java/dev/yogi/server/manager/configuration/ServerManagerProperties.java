@@ -0,0 +1,194 @@
+package dev.yogi.server.manager.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "server-manager")
+public class ServerManagerProperties {
+
+    private Ping ping = new Ping();
+    private Probe probe = new Probe();
+    private HealthCheck healthCheck = new HealthCheck();
+    private Bulk bulk = new Bulk();
+    private Cache cache = new Cache();
+    private Subscription subscription = new Subscription();
+    private Graphql graphql = new Graphql();
+    private VirtualThreads virtualThreads = new VirtualThreads();
+    private Replicas replicas = new Replicas();
+
+    @Data
+    public static class Ping {
+
+        // timeout of a single probe
+        private Duration timeout = Duration.ofSeconds(5);
+
+        // maximum number of probes in flight during a fleet sweep
+        private int parallelism = 64;
+
+        // probes of single server pings, kept apart from fleet sweeps and the health check
+        private int interactiveParallelism = 8;
+
+        // number of status changes written back per statement
+        private int batchSize = 500;
+
+        // how often buffered status changes are written
+        private Duration statusFlushInterval = Duration.ofSeconds(1);
+
+        // how long a single server ping is answered from the last probe of the host, zero disables it
+        private Duration recentResultTtl = Duration.ofSeconds(2);
+
+        // single server pings started per second across all hosts
+        private int rateLimit = 50;
+
+        // pings that may start at once after an idle period
+        private int rateLimitBurst = 100;
+
+        // how long a ping waits for a permit before it is rejected
+        private Duration rateLimitMaxWait = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Probe {
+
+        private Strategy strategy = Strategy.INET_ADDRESS;
+
+        // ports tried by the tcp-connect strategy, an accepted or refused connection means the host is up
+        private List<Integer> ports = List.of(22, 80, 443);
+
+        // maximum number of hosts probed at once by the tcp-connect strategy, each holds a socket per port
+        private int maxInFlight = 256;
+
+        public enum Strategy {
+            INET_ADDRESS,
+            TCP_CONNECT
+        }
+    }
+
+    @Data
+    public static class HealthCheck {
+
+        private boolean enabled = true;
+
+        // every server is probed once per interval, spread evenly across it
+        private Duration interval = Duration.ofMinutes(1);
+
+        // random offset added to each probe so hosts never line up
+        private Duration jitter = Duration.ofSeconds(5);
+
+        // how often buffered history rows are written
+        private Duration historyFlushInterval = Duration.ofSeconds(5);
+
+        // monthly history partitions older than this are dropped
+        private int historyRetentionMonths = 3;
+
+        private Sharding sharding = new Sharding();
+    }
+
+    @Data
+    public static class Sharding {
+
+        // split the servers between the replicas holding a lease in probe_lease
+        private boolean enabled = true;
+
+        // a replica that did not renew its lease for this long is considered gone
+        private Duration leaseTtl = Duration.ofSeconds(15);
+
+        // how often the lease is renewed and the ring rebuilt
+        private Duration renewInterval = Duration.ofSeconds(5);
+
+        // points per replica on the hash ring, more points spread the servers more evenly
+        private int virtualNodes = 128;
+    }
+
+    @Data
+    public static class Bulk {
+
+        // rows validated and inserted per statement batch and transaction
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class Cache {
+
+        // maximum number of servers kept per lookup key
+        private long maximumSize = 10_000;
+
+        // entries are reloaded at the latest after this long
+        private Duration ttl = Duration.ofMinutes(5);
+
+        private ClusterInvalidation clusterInvalidation = new ClusterInvalidation();
+    }
+
+    @Data
+    public static class ClusterInvalidation {
+
+        // broadcast evictions to the other replicas with PostgreSQL LISTEN/NOTIFY
+        private boolean enabled = true;
+
+        private String channel = "server_changes";
+
+        // delay before reconnecting the listener after the connection was lost
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Subscription {
+
+        // changes of the same server within this window are delivered once, with the latest status
+        private Duration coalesceWindow = Duration.ofMillis(500);
+
+        // changes buffered per subscriber before the oldest ones are dropped
+        private int bufferSize = 1024;
+    }
+
+    @Data
+    public static class Graphql {
+
+        // status history entries returned per server
+        private int historyPerServer = 10;
+
+        // parsed and validated documents kept by query text
+        private long documentCacheSize = 500;
+
+        // automatic persisted queries kept by hash
+        private long persistedQueryCacheSize = 2000;
+
+        // operations scoring above this are rejected before execution
+        private long maxCost = 10_000;
+
+        // larger size and first arguments are clamped to this
+        private int maxPageSize = 1000;
+
+        // cost of a single field by name, fields not listed cost 1
+        private Map<String, Integer> fieldCosts = new HashMap<>(Map.of(
+                "pingServer", 100,
+                "pingAllServers", 5000));
+    }
+
+    @Data
+    public static class VirtualThreads {
+
+        // handle requests on virtual threads instead of the Tomcat worker pool
+        private boolean enabled = false;
+    }
+
+    @Data
+    public static class Replicas {
+
+        // JDBC urls of the read replicas, they share the credentials and pool settings of the primary
+        private List<String> urls = new ArrayList<>();
+
+        // reads stay on the primary this long after a server changed, keep it above the replication lag
+        private Duration readAfterWriteWindow = Duration.ofSeconds(2);
+
+        // how long a replica that failed to hand out a connection is skipped
+        private Duration retryDelay = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,22 @@
+package dev.yogi.server.manager.configuration;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.web.servlet.function.RouterFunction;
+
+/**
+ * Beans created eagerly even when {@code spring.main.lazy-initialization} is on.
+ */
+@Configuration
+public class StartupConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerGraphQlEndpoint() {
+        // the schema is built before the first request, not while it waits, and the
+        // DataLoaders are registered by a constructor that nothing else depends on
+        return LazyInitializationExcludeFilter.forBeanTypes(GraphQlSource.class, RouterFunction.class,
+                DataLoaderConfiguration.class);
+    }
+}
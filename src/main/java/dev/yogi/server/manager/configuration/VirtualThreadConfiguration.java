@@ -0,0 +1,55 @@
+package dev.yogi.server.manager.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.yogi.server.manager.datasource.FairDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+
+/**
+ * Handles every request on its own virtual thread, so resolvers blocked on JDBC or a ping no longer
+ * hold one of the Tomcat worker threads. GraphQL data fetchers run on the request thread and follow it.
+ * The connection pools stay bounded, threads beyond them wait for a connection in arrival order.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "server-manager.virtual-threads", name = "enabled")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandler() {
+        log.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-virtual-", 0).factory()));
+    }
+
+    @Bean
+    public static BeanPostProcessor fairDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource)) {
+                    return bean;
+                }
+                return FairDataSource.of((HikariDataSource) bean);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionsWaitingMetrics(DataSource dataSource) throws SQLException {
+        // the replicas are wrapped alike and registered by the routing data source
+        FairDataSource fairDataSource = dataSource.unwrap(FairDataSource.class);
+        String pool = dataSource.unwrap(HikariDataSource.class).getPoolName();
+        return registry -> fairDataSource.bindTo(registry, pool);
+    }
+}
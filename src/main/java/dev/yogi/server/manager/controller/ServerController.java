@@ -1,20 +1,41 @@
 package dev.yogi.server.manager.controller;
 
+import dev.yogi.server.manager.configuration.DataLoaderConfiguration;
+import dev.yogi.server.manager.exception.NotFoundException;
+import dev.yogi.server.manager.model.FleetStats;
+import dev.yogi.server.manager.model.ImportReport;
+import dev.yogi.server.manager.model.PingSummary;
 import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerChangeFeed;
+import dev.yogi.server.manager.model.ServerConnection;
+import dev.yogi.server.manager.model.ServerPatch;
+import dev.yogi.server.manager.model.ServerSearchFilter;
+import dev.yogi.server.manager.model.ServerStatusChange;
+import dev.yogi.server.manager.model.ServerStatusFilter;
+import dev.yogi.server.manager.model.StatusHistory;
 import dev.yogi.server.manager.service.ServerService;
+import dev.yogi.server.manager.service.ServerStatusPublisher;
+import graphql.schema.DataFetchingEnvironment;
 import lombok.RequiredArgsConstructor;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequiredArgsConstructor
 public class ServerController {
 
     private final ServerService serverService;
+    private final ServerStatusPublisher serverStatusPublisher;
 
     @QueryMapping
     public List<Server> findAllServers(@Argument int page, @Argument int size) {
@@ -22,13 +43,56 @@ public class ServerController {
     }
 
     @QueryMapping
-    public Server findServerById(@Argument Long id) {
-        return serverService.findById(id);
+    public ServerConnection serversConnection(@Argument Integer first, @Argument String after) {
+        return serverService.findConnection(first == null ? 20 : first, after);
     }
 
     @QueryMapping
-    public Server pingServer(@Argument String ipAddress) {
-        return serverService.ping(ipAddress);
+    public ServerConnection searchServers(@Argument ServerSearchFilter filter, @Argument Integer first,
+                                          @Argument String after) {
+        return serverService.search(filter, first == null ? 20 : first, after);
+    }
+
+    @QueryMapping
+    public ServerChangeFeed serversChangedSince(@Argument String cursor, @Argument Integer limit) {
+        return serverService.findChangesSince(cursor, limit == null ? 100 : limit);
+    }
+
+    @QueryMapping
+    public FleetStats fleetStats() {
+        return serverService.fleetStats();
+    }
+
+    @QueryMapping
+    public CompletableFuture<Server> findServerById(@Argument Long id, DataFetchingEnvironment env) {
+        DataLoader<Long, Server> loader = env.getDataLoader(DataLoaderConfiguration.SERVER_BY_ID);
+        return loader.load(id).thenApply(server -> {
+            if (server == null) {
+                throw new NotFoundException("Server not found");
+            }
+            return server;
+        });
+    }
+
+    @QueryMapping
+    public CompletableFuture<Server> findServerByIpAddress(@Argument String ipAddress, DataFetchingEnvironment env) {
+        DataLoader<String, Server> loader = env.getDataLoader(DataLoaderConfiguration.SERVER_BY_IP_ADDRESS);
+        return loader.load(ipAddress).thenApply(server -> {
+            if (server == null) {
+                throw new NotFoundException("Server with ip address " + ipAddress + " not found");
+            }
+            return server;
+        });
+    }
+
+    @QueryMapping
+    public Server pingServer(@Argument String ipAddress, @Argument boolean force) {
+        return serverService.ping(ipAddress, force);
+    }
+
+    @QueryMapping
+    public PingSummary pingAllServers() {
+        return serverService.pingAll();
     }
 
     @MutationMapping
@@ -46,12 +110,42 @@ public class ServerController {
         return serverService.delete(id);
     }
 
+    @MutationMapping
+    public int updateServers(@Argument ServerSearchFilter filter, @Argument ServerPatch patch) {
+        return serverService.updateServers(filter, patch);
+    }
+
+    @MutationMapping
+    public int deleteServers(@Argument List<Long> ids, @Argument ServerSearchFilter filter) {
+        return serverService.deleteServers(ids, filter);
+    }
+
     @MutationMapping
     public Boolean saveServers(@Argument List<Server> servers) {
         serverService.saveAll(servers);
         return true;
     }
 
+    @BatchMapping
+    public Map<Server, List<StatusHistory>> statusHistory(List<Server> servers) {
+        return serverService.findStatusHistory(servers);
+    }
+
+    @BatchMapping
+    public Map<Server, StatusHistory> latestProbe(List<Server> servers) {
+        return serverService.findLatestProbes(servers);
+    }
+
+    @SubscriptionMapping
+    public Flux<ServerStatusChange> serverStatusChanged(@Argument ServerStatusFilter filter) {
+        return serverStatusPublisher.subscribe(filter);
+    }
+
+    @MutationMapping
+    public ImportReport importServers(@Argument List<Server> servers) {
+        return serverService.importServers(servers);
+    }
+
 
 
 }
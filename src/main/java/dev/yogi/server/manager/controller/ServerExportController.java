@@ -0,0 +1,39 @@
+package dev.yogi.server.manager.controller;
+
+import dev.yogi.server.manager.model.ExportFormat;
+import dev.yogi.server.manager.service.ServerExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+
+@RestController
+@RequiredArgsConstructor
+public class ServerExportController {
+
+    private final ServerExportService serverExportService;
+
+    // written straight to the servlet response so the export is not bound by the async request timeout
+    @GetMapping("/servers/export")
+    public void exportServers(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response)
+            throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format " + format);
+        }
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"servers." + exportFormat.getExtension() + "\"");
+        serverExportService.export(exportFormat, response.getOutputStream());
+    }
+}
@@ -0,0 +1,106 @@
+package dev.yogi.server.manager.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.event.ServersBulkChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Remembers the servers changed within {@code replicas.read-after-write-window}, so a lookup of
+ * one of them, or a cache reload after its eviction, reads the primary instead of a replica that
+ * has not replayed the change yet. Reads of other servers keep going to the replicas. Changes
+ * made by other nodes are reported by the cluster cache invalidation.
+ * <p>
+ * Listings, searches, connection pages, the change feed and the fleet summary are never pinned, they
+ * are eventually consistent by design. Status changes from the health check count as writes, pinning
+ * every read after any of them would keep most reads on the primary while a fleet is flapping.
+ */
+@Component
+public class ReadAfterWriteGuard {
+
+    private final long windowNanos;
+    private final Cache<Long, Boolean> writtenIds;
+    private final Cache<String, Boolean> writtenIpAddresses;
+
+    // a bulk change does not name the ip addresses it touched, every lookup then reads the primary
+    private volatile boolean writtenAll;
+    private volatile long lastWriteAll;
+
+    public ReadAfterWriteGuard(ServerManagerProperties properties) {
+        this.windowNanos = properties.getReplicas().getReadAfterWriteWindow().toNanos();
+        this.writtenIds = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getReplicas().getReadAfterWriteWindow())
+                .build();
+        this.writtenIpAddresses = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getReplicas().getReadAfterWriteWindow())
+                .build();
+    }
+
+    // before the commit, a read running concurrently with it must not reach a replica either
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onServerChanged(ServerChangedEvent event) {
+        markWritten(List.of(event.getId()), event.getIpAddresses());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onServersBulkChanged(ServersBulkChangedEvent event) {
+        markAllWritten();
+    }
+
+    public void markWritten(Collection<Long> ids, Collection<String> ipAddresses) {
+        ids.forEach(id -> writtenIds.put(id, Boolean.TRUE));
+        ipAddresses.forEach(ipAddress -> writtenIpAddresses.put(ipAddress, Boolean.TRUE));
+    }
+
+    public void markAllWritten() {
+        lastWriteAll = System.nanoTime();
+        writtenAll = true;
+    }
+
+    /**
+     * Returns whether one of the servers changed within the window.
+     */
+    public boolean isRecentlyWritten(Collection<Long> ids, Collection<String> ipAddresses) {
+        if (writtenAll && System.nanoTime() - lastWriteAll < windowNanos) {
+            return true;
+        }
+        return ids.stream().anyMatch(id -> writtenIds.getIfPresent(id) != null)
+                || ipAddresses.stream().anyMatch(ipAddress -> writtenIpAddresses.getIfPresent(ipAddress) != null);
+    }
+
+    /**
+     * Sends the reads of the current transaction to the primary when one of the servers changed
+     * within the window. The connection is chosen by the first statement, so call this before it.
+     */
+    public void pinIfRecentlyWritten(Collection<Long> ids, Collection<String> ipAddresses) {
+        // check if the transaction can be pinned and was not already
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isPinned()) {
+            return;
+        }
+        if (isRecentlyWritten(ids, ipAddresses)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReadAfterWriteGuard.this);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns whether the current transaction must read the primary.
+     */
+    public boolean isPinned() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+}
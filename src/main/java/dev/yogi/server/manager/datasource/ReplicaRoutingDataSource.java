@@ -0,0 +1,155 @@
+package dev.yogi.server.manager.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replicas in turn and everything else to the primary.
+ * Reads also go to the primary when the {@link ReadAfterWriteGuard} pinned the transaction after a
+ * recent write of the servers it looks up, and when no replica hands out a connection. A replica that failed is skipped for the retry delay.
+ * The transaction's read-only flag is only known once it began, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReadAfterWriteGuard readAfterWriteGuard;
+    private final long retryDelayNanos;
+    private final AtomicInteger next = new AtomicInteger();
+
+    // the registry depends on the data source through other meter binders, it is set once bound
+    private volatile MeterRegistry meterRegistry = new CompositeMeterRegistry();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReadAfterWriteGuard readAfterWriteGuard, Duration retryDelay) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.readAfterWriteGuard = readAfterWriteGuard;
+        this.retryDelayNanos = retryDelay.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? (T) this : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        for (Replica replica : replicas) {
+            DataSource pool = replica.dataSource;
+            // check if the pool hands out connections in arrival order
+            if (pool instanceof FairDataSource) {
+                ((FairDataSource) pool).bindTo(registry, replica.name);
+                pool = ((FairDataSource) pool).getTargetDataSource();
+            }
+            if (pool instanceof HikariDataSource) {
+                ((HikariDataSource) pool).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+        }
+    }
+
+    /**
+     * Closes the replica pools, the primary is closed by its own bean.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replica.dataSource).close();
+            }
+        }
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        // check if the transaction may read from a replica
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            return source.get(primary);
+        }
+        if (readAfterWriteGuard.isPinned()) {
+            count(PRIMARY, "recent-write");
+            return source.get(primary);
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.failed && now - replica.failedAt < retryDelayNanos) {
+                continue;
+            }
+            try {
+                Connection connection = source.get(replica.dataSource);
+                replica.failed = false;
+                count(replica.name, "read-only");
+                return connection;
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, skipping it for {} ms: {}", replica.name,
+                        retryDelayNanos / 1_000_000, e.getMessage());
+                replica.failedAt = now;
+                replica.failed = true;
+            }
+        }
+        count(PRIMARY, "no-replica");
+        return source.get(primary);
+    }
+
+    private void count(String target, String reason) {
+        Counter.builder("jdbc.reads")
+                .description("Read-only transactions by the data source that served them")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean failed;
+        private volatile long failedAt;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package dev.yogi.server.manager.event;
+
+import dev.yogi.server.manager.model.Server;
+import lombok.Getter;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Published by the write paths of {@code ServerService} with a snapshot of the server
+ * before and after the change. {@code before} is null for inserts and {@code after} for deletes.
+ */
+@Getter
+public class ServerChangedEvent {
+
+    private final Server before;
+    private final Server after;
+
+    public ServerChangedEvent(Server before, Server after) {
+        this.before = before == null ? null : before.toBuilder().build();
+        this.after = after == null ? null : after.toBuilder().build();
+    }
+
+    public Long getId() {
+        return after != null ? after.getId() : before.getId();
+    }
+
+    public Set<String> getIpAddresses() {
+        Set<String> ipAddresses = new LinkedHashSet<>();
+        if (before != null && before.getIpAddress() != null) {
+            ipAddresses.add(before.getIpAddress());
+        }
+        if (after != null && after.getIpAddress() != null) {
+            ipAddresses.add(after.getIpAddress());
+        }
+        return ipAddresses;
+    }
+
+    public boolean isStatusChanged() {
+        return before == null || after == null || !Objects.equals(before.getStatus(), after.getStatus());
+    }
+}
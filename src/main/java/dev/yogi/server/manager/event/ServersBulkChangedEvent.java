@@ -0,0 +1,17 @@
+package dev.yogi.server.manager.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by the set based write paths of {@code ServerService}, which change rows without
+ * loading them, so only the ids of the servers that may have changed are known.
+ */
+@Getter
+@AllArgsConstructor
+public class ServersBulkChangedEvent {
+
+    private final List<Long> ids;
+}
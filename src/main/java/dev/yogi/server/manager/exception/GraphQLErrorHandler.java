@@ -3,18 +3,36 @@ package dev.yogi.server.manager.exception;
 import graphql.GraphQLError;
 import graphql.GraphqlErrorBuilder;
 import graphql.schema.DataFetchingEnvironment;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
 import org.springframework.graphql.execution.ErrorType;
 import org.springframework.stereotype.Component;
+import org.springframework.validation.BindException;
+import org.springframework.validation.FieldError;
 
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class GraphQLErrorHandler extends DataFetcherExceptionResolverAdapter {
 
+    private final MeterRegistry meterRegistry;
+
     @Override
     protected GraphQLError resolveToSingleError(Throwable error, DataFetchingEnvironment env) {
+        GraphQLError graphQLError = toGraphQLError(error, env);
+
+        // count errors per resolver, the field name keeps cardinality bounded unlike the result path
+        meterRegistry.counter("graphql.resolver.errors",
+                "errorType", graphQLError.getErrorType().toString(),
+                "field", env.getExecutionStepInfo().getObjectType().getName() + "." + env.getField().getName(),
+                "exception", error.getClass().getSimpleName()).increment();
+        return graphQLError;
+    }
+
+    private GraphQLError toGraphQLError(Throwable error, DataFetchingEnvironment env) {
         if (error instanceof NotFoundException) {
             return GraphqlErrorBuilder.newError()
                     .errorType(ErrorType.NOT_FOUND)
@@ -29,6 +47,16 @@ public class GraphQLErrorHandler extends DataFetcherExceptionResolverAdapter {
                     .path(env.getExecutionStepInfo().getPath())
                     .location(env.getField().getSourceLocation())
                     .build();
+        } else if (error instanceof BindException) {
+            // argument values the model rejected while binding, e.g. an unparsable memory size
+            FieldError fieldError = ((BindException) error).getFieldError();
+            return GraphqlErrorBuilder.newError()
+                    .errorType(ErrorType.BAD_REQUEST)
+                    .message(fieldError == null ? error.getMessage()
+                            : "Invalid value " + fieldError.getRejectedValue() + " for " + fieldError.getField())
+                    .path(env.getExecutionStepInfo().getPath())
+                    .location(env.getField().getSourceLocation())
+                    .build();
         } else if (error instanceof InternalServerException) {
             return GraphqlErrorBuilder.newError()
                     .errorType(ErrorType.INTERNAL_ERROR)
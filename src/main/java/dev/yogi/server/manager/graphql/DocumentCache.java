@@ -0,0 +1,62 @@
+package dev.yogi.server.manager.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.function.Function;
+
+/**
+ * Keeps parsed and validated documents so repeated queries skip both steps, and implements
+ * Apollo automatic persisted queries: a client sends the sha256 hash of a document and only
+ * sends the full text when the server answers {@code PersistedQueryNotFound}.
+ * Both caches are bounded by size and publish Caffeine statistics.
+ */
+public class DocumentCache implements PreparsedDocumentProvider, MeterBinder {
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    private final Cache<Object, PreparsedDocumentEntry> persistedQueries;
+    private final PersistedQuerySupport persistedQuerySupport;
+
+    public DocumentCache(long maximumDocuments, long maximumPersistedQueries) {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maximumDocuments)
+                .recordStats()
+                .build();
+        this.persistedQueries = Caffeine.newBuilder()
+                .maximumSize(maximumPersistedQueries)
+                .recordStats()
+                .build();
+        // the support verifies that the hash matches the text before a miss is cached
+        this.persistedQuerySupport = new ApolloPersistedQuerySupport((id, input, onCacheMiss) ->
+                persistedQueries.get(id, key -> onCacheMiss.apply(queryText(input))));
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                              Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        if (executionInput.getExtensions().containsKey("persistedQuery")) {
+            return persistedQuerySupport.getDocument(executionInput, parseAndValidate);
+        }
+        return documents.get(executionInput.getQuery(), query -> parseAndValidate.apply(executionInput));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, documents, "graphql.documents");
+        CaffeineCacheMetrics.monitor(registry, persistedQueries, "graphql.persisted-queries");
+    }
+
+    private static String queryText(ExecutionInput executionInput) {
+        String query = executionInput.getQuery();
+        // a hash only request carries the marker instead of the text
+        return PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query) ? null : query;
+    }
+}
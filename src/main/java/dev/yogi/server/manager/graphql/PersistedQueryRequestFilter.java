@@ -0,0 +1,171 @@
+package dev.yogi.server.manager.graphql;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lets hash only persisted query requests through the GraphQL HTTP handler, which rejects
+ * requests without a {@code query}. The missing text is replaced by the marker that
+ * {@link PersistedQuerySupport} reads as "look the document up by its hash". Only the top level
+ * fields of the body are scanned, a body is rewritten only when it names a persisted query.
+ */
+@RequiredArgsConstructor
+public class PersistedQueryRequestFilter extends OncePerRequestFilter {
+
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    private final ObjectMapper objectMapper;
+    private final String path;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !path.equals(URL_PATH_HELPER.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        Document document;
+        try {
+            document = scan(body);
+        } catch (JsonProcessingException e) {
+            // leave malformed bodies to the GraphQL handler to report
+            chain.doFilter(new BodyRequestWrapper(request, body), response);
+            return;
+        }
+        if (document == Document.INVALID_QUERY) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "The query must be a string");
+            return;
+        }
+        if (document == Document.PERSISTED_WITHOUT_QUERY) {
+            ObjectNode node = (ObjectNode) objectMapper.readTree(body);
+            node.put("query", PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+            body = objectMapper.writeValueAsBytes(node);
+        }
+        chain.doFilter(new BodyRequestWrapper(request, body), response);
+    }
+
+    // reads the query and extensions fields, every other value is skipped without being materialized
+    private Document scan(byte[] body) throws IOException {
+        boolean hasQuery = false;
+        boolean persisted = false;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Document.OTHER;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("query".equals(field)) {
+                    // check if the query is text, anything else cannot be parsed as a document
+                    if (value == JsonToken.VALUE_STRING) {
+                        hasQuery = !parser.getText().isBlank();
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        return Document.INVALID_QUERY;
+                    }
+                } else if ("extensions".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        persisted |= "persistedQuery".equals(parser.getCurrentName());
+                        parser.nextToken();
+                        parser.skipChildren();
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return persisted && !hasQuery ? Document.PERSISTED_WITHOUT_QUERY : Document.OTHER;
+    }
+
+    private enum Document {
+        PERSISTED_WITHOUT_QUERY,
+        INVALID_QUERY,
+        OTHER
+    }
+
+    private static class BodyRequestWrapper extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private BodyRequestWrapper(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the whole body is already buffered, it can be read at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dev.yogi.server.manager.metrics;
+
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+
+import java.util.stream.Collectors;
+
+/**
+ * Names operations by their type and root fields, e.g. {@code query findServerById,fleetStats}, rather than
+ * the client chosen operation name to keep tag cardinality bounded by the schema.
+ */
+final class OperationNames {
+
+    private OperationNames() {
+    }
+
+    static String of(OperationDefinition definition) {
+        return definition.getOperation().name().toLowerCase() + " "
+                + definition.getSelectionSet().getSelectionsOfType(Field.class).stream()
+                .map(Field::getName)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+}
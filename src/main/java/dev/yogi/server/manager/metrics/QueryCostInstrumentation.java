@@ -0,0 +1,136 @@
+package dev.yogi.server.manager.metrics;
+
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import graphql.schema.GraphQLFieldDefinition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores every operation before it executes and aborts it when the cost exceeds the budget.
+ * A field costs its configured weight, 1 by default, plus the cost of its selections multiplied by
+ * the requested page size. Page sizes above the maximum are clamped before the data fetcher runs.
+ * The cost of accepted operations is recorded in a {@code graphql.operation.cost} summary.
+ */
+@Slf4j
+public class QueryCostInstrumentation extends SimpleInstrumentation {
+
+    // arguments that set how many items a list field returns
+    private static final List<String> PAGE_SIZE_ARGUMENTS = List.of("size", "first", "limit");
+
+    private final long maxCost;
+    private final int maxPageSize;
+    private final Map<String, Integer> fieldCosts;
+    private final MeterRegistry meterRegistry;
+
+    public QueryCostInstrumentation(long maxCost, int maxPageSize, Map<String, Integer> fieldCosts,
+                                    MeterRegistry meterRegistry) {
+        this.maxCost = maxCost;
+        this.maxPageSize = maxPageSize;
+        this.fieldCosts = Map.copyOf(fieldCosts);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters) {
+        ExecutionContext context = parameters.getExecutionContext();
+        String operation = OperationNames.of(context.getOperationDefinition());
+        long cost = cost(context);
+
+        // check if the operation fits the budget before any data fetcher runs
+        if (cost > maxCost) {
+            log.warn("Rejecting {} with cost {}", operation, cost);
+            Counter.builder("graphql.operation.rejected")
+                    .description("GraphQL operations rejected for exceeding the cost budget")
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .increment();
+            throw new AbortExecutionException("Query cost " + cost + " exceeds the maximum of " + maxCost);
+        }
+        DistributionSummary.builder("graphql.operation.cost")
+                .description("Estimated cost of accepted GraphQL operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(cost);
+        return super.beginExecuteOperation(parameters);
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters) {
+        GraphQLFieldDefinition definition = parameters.getEnvironment().getFieldDefinition();
+        if (PAGE_SIZE_ARGUMENTS.stream().noneMatch(name -> definition.getArgument(name) != null)) {
+            return dataFetcher;
+        }
+        return environment -> dataFetcher.get(clampPageSize(environment));
+    }
+
+    private DataFetchingEnvironment clampPageSize(DataFetchingEnvironment environment) {
+        Map<String, Object> arguments = null;
+        for (String name : PAGE_SIZE_ARGUMENTS) {
+            Object value = environment.getArgument(name);
+            if (value instanceof Integer && (Integer) value > maxPageSize) {
+                if (arguments == null) {
+                    arguments = new LinkedHashMap<>(environment.getArguments());
+                }
+                arguments.put(name, maxPageSize);
+            }
+        }
+        if (arguments == null) {
+            return environment;
+        }
+        return DataFetchingEnvironmentImpl.newDataFetchingEnvironment(environment)
+                .arguments(arguments)
+                .build();
+    }
+
+    private long cost(ExecutionContext context) {
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                .schema(context.getGraphQLSchema())
+                .document(context.getDocument())
+                .operationName(context.getOperationDefinition().getName())
+                .coercedVariables(context.getCoercedVariables())
+                .build();
+
+        // fields are visited after their selections, each adds its cost to the parent's total
+        Map<QueryVisitorFieldEnvironment, Long> selectionCosts = new HashMap<>();
+        traverser.visitPostOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment environment) {
+                long selections = selectionCosts.getOrDefault(environment, 0L);
+                long cost = fieldCosts.getOrDefault(environment.getFieldDefinition().getName(), 1)
+                        + pageSize(environment.getArguments()) * selections;
+                selectionCosts.merge(environment.getParentEnvironment(), cost, Long::sum);
+            }
+        });
+        return selectionCosts.getOrDefault(null, 0L);
+    }
+
+    private long pageSize(Map<String, Object> arguments) {
+        for (String name : PAGE_SIZE_ARGUMENTS) {
+            Object value = arguments.get(name);
+            if (value instanceof Integer) {
+                return Math.max(1, Math.min((Integer) value, maxPageSize));
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,72 @@
+package dev.yogi.server.manager.metrics;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records how many SQL statements were executed for each GraphQL operation in a
+ * {@code graphql.operation.statements} summary tagged by the operation's root fields. Every data
+ * fetcher runs within the execution's {@link StatementCounter.Scope}, batch loaders enter it themselves.
+ */
+public class StatementCountInstrumentation extends SimpleInstrumentation {
+
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+
+    public StatementCountInstrumentation(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new State();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters) {
+        State state = parameters.getInstrumentationState();
+        StatementCounter.Scope scope = statementCounter.open(parameters.getGraphQLContext());
+        return SimpleInstrumentationContext.whenCompleted((result, t) -> {
+            int statements = scope.close();
+            if (state.operation != null) {
+                DistributionSummary.builder("graphql.operation.statements")
+                        .description("SQL statements executed per GraphQL operation")
+                        .tag("operation", state.operation)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(statements);
+            }
+        });
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters) {
+        State state = parameters.getInstrumentationState();
+        state.operation = OperationNames.of(parameters.getExecutionContext().getOperationDefinition());
+        return super.beginExecuteOperation(parameters);
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters) {
+        // property fetchers never reach the database
+        if (parameters.isTrivialDataFetcher()) {
+            return dataFetcher;
+        }
+        return environment -> statementCounter.callWithin(environment.getGraphQlContext(), () -> dataFetcher.get(environment));
+    }
+
+    private static class State implements InstrumentationState {
+        private volatile String operation;
+    }
+}
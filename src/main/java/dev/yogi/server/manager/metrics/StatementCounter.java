@@ -0,0 +1,134 @@
+package dev.yogi.server.manager.metrics;
+
+import graphql.GraphQLContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the JDBC statements executed through the wrapped data source, Hibernate and
+ * {@code JdbcTemplate} alike, and charges them to the {@link Scope} of the GraphQL execution that ran
+ * them. The scope travels in the execution's {@link GraphQLContext}, data fetchers and batch loaders
+ * enter it on whichever thread they run, and a closed scope stops counting.
+ */
+public class StatementCounter {
+
+    private static final String CONTEXT_KEY = Scope.class.getName();
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    /**
+     * Returns a data source whose statements are counted.
+     */
+    public DataSource wrap(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return countingConnection(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return countingConnection(super.getConnection(username, password));
+            }
+        };
+    }
+
+    /**
+     * Opens the scope of an execution and stores it in the execution's context.
+     */
+    public Scope open(GraphQLContext context) {
+        Scope scope = new Scope();
+        context.put(CONTEXT_KEY, scope);
+        return scope;
+    }
+
+    /**
+     * Runs the callable on the current thread within the scope stored in the context, if any.
+     */
+    public <T> T callWithin(GraphQLContext context, Callable<T> callable) throws Exception {
+        Scope scope = context == null ? null : context.get(CONTEXT_KEY);
+        if (scope == null) {
+            return callable.call();
+        }
+        Scope previous = current.get();
+        current.set(scope);
+        try {
+            return callable.call();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    private Connection countingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    switch (method.getName()) {
+                        case "createStatement":
+                            return countingStatement((Statement) result, Statement.class);
+                        case "prepareStatement":
+                            return countingStatement((Statement) result, PreparedStatement.class);
+                        case "prepareCall":
+                            return countingStatement((Statement) result, CallableStatement.class);
+                        default:
+                            return result;
+                    }
+                });
+    }
+
+    private Object countingStatement(Statement statement, Class<? extends Statement> type) {
+        return Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            // a batch is one round trip, it counts once
+            if (method.getName().startsWith("execute")) {
+                Scope scope = current.get();
+                if (scope != null) {
+                    scope.increment();
+                }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    public static class Scope {
+
+        private final AtomicInteger statements = new AtomicInteger();
+        private volatile boolean closed;
+
+        private void increment() {
+            if (!closed) {
+                statements.incrementAndGet();
+            }
+        }
+
+        /**
+         * Stops counting, returns the statements counted so far.
+         */
+        public int close() {
+            closed = true;
+            return statements.get();
+        }
+    }
+}
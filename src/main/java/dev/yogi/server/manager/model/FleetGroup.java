@@ -0,0 +1,20 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FleetGroup {
+
+    private Status status;
+    private ServerType type;
+    private long count;
+    private long memorySumBytes;
+    private Long memoryMinBytes;
+    private Long memoryMaxBytes;
+}
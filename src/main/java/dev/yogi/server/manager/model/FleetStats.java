@@ -0,0 +1,20 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FleetStats {
+
+    private FleetGroup total;
+    private List<FleetGroup> byStatus;
+    private List<FleetGroup> byType;
+    private List<FleetGroup> byStatusAndType;
+}
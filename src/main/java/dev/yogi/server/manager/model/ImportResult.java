@@ -0,0 +1,20 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportResult {
+
+    private int index;
+    private String ipAddress;
+    private boolean accepted;
+    private Long id;
+    private String reason;
+
+}
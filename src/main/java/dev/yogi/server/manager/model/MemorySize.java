@@ -0,0 +1,59 @@
+package dev.yogi.server.manager.model;
+
+import dev.yogi.server.manager.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts between byte counts and the human readable sizes accepted by the API, such as "32 GB".
+ * Units are binary, 1 KB is 1024 bytes.
+ */
+public final class MemorySize {
+
+    private static final Pattern PATTERN = Pattern.compile("^\\s*([-+]?\\d+(?:\\.\\d+)?)\\s*([KMGT]?)I?B?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+    private static final String[] UNITS = {"B", "KB", "MB", "GB", "TB"};
+
+    private MemorySize() {
+    }
+
+    /**
+     * Parses a size into a byte count, rejecting negative sizes, fractions of a byte and sizes beyond a long.
+     */
+    public static long parse(String memory) {
+        Matcher matcher = PATTERN.matcher(memory);
+        if (!matcher.matches()) {
+            throw new BadRequestException("Invalid memory size " + memory);
+        }
+        int exponent = " KMGT".indexOf(matcher.group(2).isEmpty() ? ' ' : matcher.group(2).toUpperCase(Locale.ROOT).charAt(0));
+        long bytes;
+        try {
+            bytes = new BigDecimal(matcher.group(1))
+                    .multiply(BigDecimal.valueOf(1024).pow(exponent))
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Memory size " + memory + " is too large or not a whole number of bytes");
+        }
+        // check if the size is negative
+        if (bytes < 0) {
+            throw new BadRequestException("Memory size " + memory + " must not be negative");
+        }
+        return bytes;
+    }
+
+    /**
+     * Formats with the largest unit that represents the byte count exactly, so parsing the result is lossless.
+     */
+    public static String format(long bytes) {
+        int unit = 0;
+        long value = bytes;
+        while (unit < UNITS.length - 1 && value != 0 && value % 1024 == 0) {
+            value /= 1024;
+            unit++;
+        }
+        return value + " " + UNITS[unit];
+    }
+}
@@ -0,0 +1,18 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageInfo {
+
+    private boolean hasNextPage;
+    private String startCursor;
+    private String endCursor;
+
+}
@@ -0,0 +1,25 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PingSummary {
+
+    private int total;
+    private int up;
+    private int down;
+    private int errors;
+    private int changed;
+    private long durationMs;
+    private double latencyP50Ms;
+    private double latencyP90Ms;
+    private double latencyP99Ms;
+    private double latencyMaxMs;
+
+}
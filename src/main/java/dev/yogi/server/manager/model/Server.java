@@ -7,20 +7,37 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_server_status_type_memory", columnList = "status, type, memoryBytes"),
+        @Index(name = "idx_server_memory_bytes", columnList = "memoryBytes")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Server {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "server_seq")
+    @SequenceGenerator(name = "server_seq", sequenceName = "server_seq", allocationSize = 50)
     private Long id;
     @Column(unique = true)
     private String ipAddress;
     private String name;
-    private String memory;
-    private String type;
+    private Long memoryBytes;
+    @Enumerated(EnumType.STRING)
+    private ServerType type;
     private Status status;
+    // incremented by every update, an update naming an older version is rejected
+    @Version
+    private long version;
+
+    public String getMemory() {
+        return memoryBytes == null ? null : MemorySize.format(memoryBytes);
+    }
+
+    public void setMemory(String memory) {
+        this.memoryBytes = memory == null ? null : MemorySize.parse(memory);
+    }
 
 }
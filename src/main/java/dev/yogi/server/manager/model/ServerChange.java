@@ -0,0 +1,21 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServerChange {
+
+    private long version;
+    private Long id;
+    private String ipAddress;
+    private boolean deleted;
+    // null for deleted servers
+    private Server server;
+
+}
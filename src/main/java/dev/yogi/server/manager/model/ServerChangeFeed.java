@@ -0,0 +1,20 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServerChangeFeed {
+
+    private List<ServerChange> changes;
+    private String cursor;
+    private boolean hasMore;
+
+}
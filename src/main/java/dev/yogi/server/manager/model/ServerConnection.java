@@ -0,0 +1,19 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServerConnection {
+
+    private List<ServerEdge> edges;
+    private PageInfo pageInfo;
+
+}
@@ -0,0 +1,30 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fields to set on every server matched by a bulk update, null fields are left unchanged.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServerPatch {
+
+    private String ipAddress;
+    private String name;
+    private Long memoryBytes;
+    private ServerType type;
+    private Status status;
+
+    public void setMemory(String memory) {
+        this.memoryBytes = memory == null ? null : MemorySize.parse(memory);
+    }
+
+    public boolean isEmpty() {
+        return ipAddress == null && name == null && memoryBytes == null && type == null && status == null;
+    }
+}
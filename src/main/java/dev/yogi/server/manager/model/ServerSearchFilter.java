@@ -0,0 +1,27 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ServerSearchFilter {
+
+    private List<Long> ids;
+    private Status status;
+    private ServerType type;
+    private Long minMemoryBytes;
+    private Long maxMemoryBytes;
+    private String namePrefix;
+
+    public boolean isEmpty() {
+        return ids == null && status == null && type == null && minMemoryBytes == null && maxMemoryBytes == null
+                && (namePrefix == null || namePrefix.isEmpty());
+    }
+}
@@ -0,0 +1,21 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServerStatusChange {
+
+    private Server server;
+    private Status previousStatus;
+    private Status status;
+    private OffsetDateTime changedAt;
+
+}
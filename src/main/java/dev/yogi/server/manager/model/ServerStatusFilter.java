@@ -0,0 +1,26 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServerStatusFilter {
+
+    private List<Long> ids;
+    private List<String> ipAddresses;
+    private Status status;
+
+    public boolean matches(ServerStatusChange change) {
+        Server server = change.getServer();
+        return (ids == null || ids.contains(server.getId()))
+                && (ipAddresses == null || ipAddresses.contains(server.getIpAddress()))
+                && (status == null || status == change.getStatus());
+    }
+}
@@ -0,0 +1,9 @@
+package dev.yogi.server.manager.model;
+
+public enum ServerType {
+    LINUX,
+    WINDOWS,
+    VIRTUAL,
+    PHYSICAL,
+    OTHER
+}
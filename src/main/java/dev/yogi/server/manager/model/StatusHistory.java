@@ -0,0 +1,21 @@
+package dev.yogi.server.manager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatusHistory {
+
+    private Long serverId;
+    private Status status;
+    private Double latencyMs;
+    private OffsetDateTime checkedAt;
+
+}
@@ -0,0 +1,87 @@
+package dev.yogi.server.manager.probe;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses concurrent probes of the same host into a single in-flight probe and serves
+ * results from a short window afterwards, so a burst of pings for one host probes it once.
+ * Coalesced requests are counted in {@code server.probe.coalesced} tagged by source.
+ */
+public class CoalescingProbeStrategy implements ProbeStrategy {
+
+    private final ProbeStrategy delegate;
+    private final Map<String, CompletableFuture<ProbeResult>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, ProbeResult> recentResults;
+    private final Counter joinedInFlight;
+    private final Counter servedRecent;
+
+    public CoalescingProbeStrategy(ProbeStrategy delegate, Duration recentResultTtl, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.recentResults = Caffeine.newBuilder()
+                .expireAfterWrite(recentResultTtl)
+                .build();
+        this.joinedInFlight = counter(meterRegistry, "in-flight");
+        this.servedRecent = counter(meterRegistry, "recent");
+    }
+
+    @Override
+    public CompletableFuture<ProbeResult> probe(String ipAddress, Duration timeout) {
+        return probe(ipAddress, timeout, false);
+    }
+
+    /**
+     * Probes the host unless a result within the recent window exists. A forced probe skips the
+     * window but still joins a probe already in flight, its result is no older than the request.
+     */
+    public CompletableFuture<ProbeResult> probe(String ipAddress, Duration timeout, boolean force) {
+        if (!force) {
+            ProbeResult recent = recentResults.getIfPresent(ipAddress);
+            if (recent != null) {
+                servedRecent.increment();
+                return CompletableFuture.completedFuture(recent);
+            }
+        }
+
+        CompletableFuture<ProbeResult> created = new CompletableFuture<>();
+        CompletableFuture<ProbeResult> shared = inFlight.putIfAbsent(ipAddress, created);
+        if (shared != null) {
+            joinedInFlight.increment();
+            // callers get a copy so none of them can complete the shared future
+            return shared.copy();
+        }
+
+        // start the probe outside of the map, it may complete on this thread
+        delegate.probe(ipAddress, timeout).whenComplete((result, throwable) -> {
+            if (result != null) {
+                recentResults.put(ipAddress, result);
+            }
+            inFlight.remove(ipAddress, created);
+            if (throwable != null) {
+                created.completeExceptionally(throwable);
+            } else {
+                created.complete(result);
+            }
+        });
+        return created.copy();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("server.probe.coalesced")
+                .description("Pings answered by another probe of the same host")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
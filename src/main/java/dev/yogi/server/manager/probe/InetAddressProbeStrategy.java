@@ -0,0 +1,33 @@
+package dev.yogi.server.manager.probe;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Probes with {@link InetAddress#isReachable(int)}, ICMP echo when running as root and a blocking
+ * TCP connect to port 7 otherwise. Every probe occupies a ping executor thread for its whole duration.
+ */
+@RequiredArgsConstructor
+public class InetAddressProbeStrategy implements ProbeStrategy {
+
+    private final ExecutorService pingExecutor;
+
+    @Override
+    public CompletableFuture<ProbeResult> probe(String ipAddress, Duration timeout) {
+        return CompletableFuture.supplyAsync(() -> {
+            long started = System.nanoTime();
+            try {
+                boolean reachable = InetAddress.getByName(ipAddress).isReachable((int) timeout.toMillis());
+                return new ProbeResult(reachable, System.nanoTime() - started);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, pingExecutor);
+    }
+}
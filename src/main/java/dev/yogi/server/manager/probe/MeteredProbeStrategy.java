@@ -0,0 +1,53 @@
+package dev.yogi.server.manager.probe;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of every probe in a {@code server.probe} timer tagged by strategy and
+ * outcome. Hosts are deliberately not tagged, per host latency is kept in the status history.
+ */
+public class MeteredProbeStrategy implements ProbeStrategy {
+
+    private final ProbeStrategy delegate;
+    private final Timer up;
+    private final Timer down;
+    private final Timer error;
+
+    public MeteredProbeStrategy(ProbeStrategy delegate, MeterRegistry meterRegistry, String strategy) {
+        this.delegate = delegate;
+        this.up = timer(meterRegistry, strategy, "up");
+        this.down = timer(meterRegistry, strategy, "down");
+        this.error = timer(meterRegistry, strategy, "error");
+    }
+
+    @Override
+    public CompletableFuture<ProbeResult> probe(String ipAddress, Duration timeout) {
+        long started = System.nanoTime();
+        return delegate.probe(ipAddress, timeout).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                error.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            } else {
+                (result.isReachable() ? up : down).record(result.getLatencyNanos(), TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String strategy, String outcome) {
+        return Timer.builder("server.probe")
+                .description("Latency of host reachability probes")
+                .tag("strategy", strategy)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
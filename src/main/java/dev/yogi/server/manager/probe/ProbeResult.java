@@ -0,0 +1,18 @@
+package dev.yogi.server.manager.probe;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProbeResult {
+
+    private boolean reachable;
+    private long latencyNanos;
+
+    public double getLatencyMs() {
+        return latencyNanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,20 @@
+package dev.yogi.server.manager.probe;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Checks whether a host is reachable. Implementations must not block the caller,
+ * the returned future may be completed on an I/O thread so callbacks should not block either.
+ */
+public interface ProbeStrategy {
+
+    CompletableFuture<ProbeResult> probe(String ipAddress, Duration timeout);
+
+    /**
+     * Releases threads or sockets held by the strategy, called when the application context closes.
+     */
+    default void close() {
+    }
+
+}
@@ -0,0 +1,73 @@
+package dev.yogi.server.manager.probe;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the rate at which probes are started with a token bucket shared by all hosts.
+ * A probe that cannot get a permit within the maximum wait fails with a
+ * {@link RejectedExecutionException} instead of queueing without bound.
+ */
+public class RateLimitedProbeStrategy implements ProbeStrategy {
+
+    private final ProbeStrategy delegate;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long maxWaitNanos;
+
+    // time at which the next permit becomes available
+    private final AtomicLong nextPermit;
+
+    public RateLimitedProbeStrategy(ProbeStrategy delegate, int permitsPerSecond, int burst, Duration maxWait) {
+        if (permitsPerSecond < 1 || burst < 1) {
+            throw new IllegalArgumentException("Probe rate limit and burst must be positive");
+        }
+        this.delegate = delegate;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burstNanos = (burst - 1) * intervalNanos;
+        this.maxWaitNanos = maxWait.toNanos();
+        // start with a full burst available
+        this.nextPermit = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    @Override
+    public CompletableFuture<ProbeResult> probe(String ipAddress, Duration timeout) {
+        long wait = reserve();
+        if (wait < 0) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Probe rate limit exceeded"));
+        }
+        if (wait == 0) {
+            return delegate.probe(ipAddress, timeout);
+        }
+        // wait for the permit on the delay scheduler, the caller is never blocked here
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS))
+                .thenCompose(ignored -> delegate.probe(ipAddress, timeout));
+    }
+
+    /**
+     * Reserves the next permit, returns how long to wait for it or -1 when that exceeds the maximum wait.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private long reserve() {
+        while (true) {
+            long now = System.nanoTime();
+            long next = nextPermit.get();
+            // permits not used while idle accumulate up to the burst size
+            long permit = Math.max(next, now - burstNanos);
+            long wait = Math.max(0, permit - now);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (nextPermit.compareAndSet(next, permit + intervalNanos)) {
+                return wait;
+            }
+        }
+    }
+}
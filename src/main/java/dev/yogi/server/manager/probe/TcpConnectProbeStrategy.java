@@ -0,0 +1,256 @@
+package dev.yogi.server.manager.probe;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes hosts with non-blocking TCP connects multiplexed on a single selector thread.
+ * A host is reachable as soon as one of the configured ports accepts or actively refuses
+ * the connection, both prove that the host answered. A probe that cannot open its sockets,
+ * for example when the process is out of file descriptors, fails instead of reporting the host down.
+ * Each host in flight holds one socket per port.
+ */
+@Slf4j
+public class TcpConnectProbeStrategy implements ProbeStrategy {
+
+    private final List<Integer> ports;
+    private final int maxInFlight;
+    private final Selector selector;
+    private final Thread selectorThread;
+    private final Queue<Probe> submissions = new ConcurrentLinkedQueue<>();
+
+    // only touched by the selector thread
+    private final PriorityQueue<Probe> deadlines = new PriorityQueue<>(Comparator.comparingLong(probe -> probe.deadline));
+    private int inFlight;
+
+    private volatile boolean running = true;
+
+    public TcpConnectProbeStrategy(List<Integer> ports, int maxInFlight) {
+        if (ports.isEmpty()) {
+            throw new IllegalArgumentException("At least one probe port is required");
+        }
+        this.ports = List.copyOf(ports);
+        this.maxInFlight = maxInFlight;
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.selectorThread = new Thread(this::run, "tcp-probe-selector");
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+    }
+
+    @Override
+    public CompletableFuture<ProbeResult> probe(String ipAddress, Duration timeout) {
+        CompletableFuture<ProbeResult> future = new CompletableFuture<>();
+        InetAddress address;
+        try {
+            address = InetAddress.getByName(ipAddress);
+        } catch (UnknownHostException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        submissions.add(new Probe(address, future, timeout.toNanos()));
+        selector.wakeup();
+        return future;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                Probe next = deadlines.peek();
+                long waitMs = next == null ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(next.deadline - System.nanoTime()));
+                selector.select(waitMs);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    connected(key);
+                }
+                expire();
+                start();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Probe selector failed: {}", e.getMessage(), e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void start() {
+        Probe probe;
+        while (inFlight < maxInFlight && (probe = submissions.poll()) != null) {
+            inFlight++;
+            probe.started = System.nanoTime();
+            probe.deadline = probe.started + probe.timeoutNanos;
+            deadlines.add(probe);
+            for (Integer port : ports) {
+                if (probe.done) {
+                    break;
+                }
+                connect(probe, new InetSocketAddress(probe.address, port));
+            }
+        }
+    }
+
+    private void connect(Probe probe, InetSocketAddress target) {
+        SocketChannel channel;
+        try {
+            channel = openChannel();
+            probe.channels.add(channel);
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            // a local resource ran out, this says nothing about the host
+            error(probe, e);
+            return;
+        }
+        try {
+            if (channel.connect(target)) {
+                finish(probe, true);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, probe);
+            }
+        } catch (IOException e) {
+            failed(probe, e);
+        }
+    }
+
+    private void connected(SelectionKey key) {
+        Probe probe = (Probe) key.attachment();
+        if (probe.done) {
+            return;
+        }
+        try {
+            if (((SocketChannel) key.channel()).finishConnect()) {
+                finish(probe, true);
+            }
+        } catch (IOException e) {
+            failed(probe, e);
+        }
+    }
+
+    /**
+     * Opens the socket of one connect attempt.
+     */
+    protected SocketChannel openChannel() throws IOException {
+        return SocketChannel.open();
+    }
+
+    private void failed(Probe probe, IOException e) {
+        // a refused connection means the host itself answered with a reset, timeouts are the deadline's
+        if (e instanceof ConnectException) {
+            finish(probe, true);
+            return;
+        }
+        probe.failures++;
+        if (probe.failures == ports.size()) {
+            finish(probe, false);
+        }
+    }
+
+    private void expire() {
+        long now = System.nanoTime();
+        while (!deadlines.isEmpty() && (deadlines.peek().done || deadlines.peek().deadline <= now)) {
+            finish(deadlines.poll(), false);
+        }
+    }
+
+    private void finish(Probe probe, boolean reachable) {
+        if (close(probe)) {
+            probe.future.complete(new ProbeResult(reachable, System.nanoTime() - probe.started));
+        }
+    }
+
+    private void error(Probe probe, IOException e) {
+        if (close(probe)) {
+            log.warn("Could not probe {}: {}", probe.address.getHostAddress(), e.getMessage());
+            probe.future.completeExceptionally(e);
+        }
+    }
+
+    // returns whether the probe was still running
+    private boolean close(Probe probe) {
+        if (probe.done) {
+            return false;
+        }
+        probe.done = true;
+        inFlight--;
+        for (SocketChannel channel : probe.channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Error closing probe channel: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void shutdown() {
+        IOException closed = new IOException("Probe selector closed");
+        deadlines.forEach(probe -> {
+            probe.channels.forEach(channel -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.debug("Error closing probe channel: {}", e.getMessage());
+                }
+            });
+            probe.future.completeExceptionally(closed);
+        });
+        submissions.forEach(probe -> probe.future.completeExceptionally(closed));
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.debug("Error closing probe selector: {}", e.getMessage());
+        }
+    }
+
+    private static class Probe {
+        private final InetAddress address;
+        private final CompletableFuture<ProbeResult> future;
+        private final long timeoutNanos;
+        private final List<SocketChannel> channels = new ArrayList<>();
+        private long started;
+        private long deadline;
+        private int failures;
+        private boolean done;
+
+        private Probe(InetAddress address, CompletableFuture<ProbeResult> future, long timeoutNanos) {
+            this.address = address;
+            this.future = future;
+            this.timeoutNanos = timeoutNanos;
+        }
+    }
+}
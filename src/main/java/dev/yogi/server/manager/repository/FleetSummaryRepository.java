@@ -0,0 +1,67 @@
+package dev.yogi.server.manager.repository;
+
+import dev.yogi.server.manager.model.FleetGroup;
+import dev.yogi.server.manager.model.FleetStats;
+import dev.yogi.server.manager.model.ServerType;
+import dev.yogi.server.manager.model.Status;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read access to the {@code fleet_summary} table, one row per (status, type) kept current by
+ * triggers on {@code server}, see {@code db/migration/V1__baseline.sql}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FleetSummaryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FleetStats findStats() {
+        List<FleetGroup> byStatus = new ArrayList<>();
+        List<FleetGroup> byType = new ArrayList<>();
+        List<FleetGroup> byStatusAndType = new ArrayList<>();
+        FleetStats stats = FleetStats.builder()
+                .byStatus(byStatus)
+                .byType(byType)
+                .byStatusAndType(byStatusAndType)
+                .build();
+
+        // every grouping in one pass over the summary rows, GROUPING() tells which set a row belongs to
+        jdbcTemplate.query("SELECT status, type, GROUPING(status) AS any_status, GROUPING(type) AS any_type, "
+                        + "SUM(server_count) AS server_count, SUM(memory_sum) AS memory_sum, "
+                        + "MIN(memory_min) AS memory_min, MAX(memory_max) AS memory_max "
+                        + "FROM fleet_summary WHERE server_count > 0 "
+                        + "GROUP BY GROUPING SETS ((status, type), (status), (type), ()) "
+                        + "ORDER BY status, type",
+                rs -> {
+                    Integer status = rs.getObject("status", Integer.class);
+                    String type = rs.getString("type");
+                    FleetGroup group = FleetGroup.builder()
+                            .status(status == null ? null : Status.values()[status])
+                            .type(type == null ? null : ServerType.valueOf(type))
+                            .count(rs.getLong("server_count"))
+                            .memorySumBytes(rs.getLong("memory_sum"))
+                            .memoryMinBytes(rs.getObject("memory_min", Long.class))
+                            .memoryMaxBytes(rs.getObject("memory_max", Long.class))
+                            .build();
+
+                    boolean anyStatus = rs.getBoolean("any_status");
+                    boolean anyType = rs.getBoolean("any_type");
+                    if (anyStatus && anyType) {
+                        stats.setTotal(group);
+                    } else if (anyType) {
+                        byStatus.add(group);
+                    } else if (anyStatus) {
+                        byType.add(group);
+                    } else {
+                        byStatusAndType.add(group);
+                    }
+                });
+        return stats;
+    }
+}
@@ -0,0 +1,38 @@
+package dev.yogi.server.manager.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Leases of the replicas sharing the health checks in the {@code probe_lease} table. Expiry is
+ * computed with the database clock so replicas with skewed clocks agree on who is alive.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProbeLeaseRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void renew(String nodeId, Duration ttl) {
+        jdbcTemplate.update("INSERT INTO probe_lease (node_id, renewed_at, expires_at) "
+                        + "VALUES (?, now(), now() + ? * INTERVAL '1 millisecond') "
+                        + "ON CONFLICT (node_id) DO UPDATE SET renewed_at = EXCLUDED.renewed_at, expires_at = EXCLUDED.expires_at",
+                nodeId, ttl.toMillis());
+    }
+
+    /**
+     * Removes expired leases and returns the nodes still holding one.
+     */
+    public List<String> findLiveNodes() {
+        jdbcTemplate.update("DELETE FROM probe_lease WHERE expires_at <= now()");
+        return jdbcTemplate.queryForList("SELECT node_id FROM probe_lease ORDER BY node_id", String.class);
+    }
+
+    public void release(String nodeId) {
+        jdbcTemplate.update("DELETE FROM probe_lease WHERE node_id = ?", nodeId);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.yogi.server.manager.repository;
+
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerChange;
+import dev.yogi.server.manager.model.ServerType;
+import dev.yogi.server.manager.model.Status;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reads the change feed kept by the {@code change_version} column of {@code server} and the
+ * {@code server_tombstone} table, both maintained by the database, see {@code V2__server_change_feed.sql}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ServerChangeRepository {
+
+    // rows written by transactions that may still commit are held back, see the migration
+    private static final String VISIBLE = "change_version < (SELECT txid_snapshot_xmin(txid_current_snapshot()))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns up to {@code limit} changed and deleted servers after the given position, ordered by
+     * version and id. Each side is a range scan of its {@code (change_version, id)} index.
+     */
+    public List<ServerChange> findChangesSince(long version, long id, int limit) {
+        return jdbcTemplate.query("(SELECT id, ip_address, name, memory_bytes, type, status, change_version, FALSE AS deleted "
+                        + "FROM server WHERE (change_version, id) > (?, ?) AND " + VISIBLE + " "
+                        + "ORDER BY change_version, id LIMIT ?) "
+                        + "UNION ALL "
+                        + "(SELECT id, ip_address, NULL, NULL, NULL, NULL, change_version, TRUE "
+                        + "FROM server_tombstone WHERE (change_version, id) > (?, ?) AND " + VISIBLE + " "
+                        + "ORDER BY change_version, id LIMIT ?) "
+                        + "ORDER BY change_version, id LIMIT ?",
+                (rs, rowNum) -> {
+                    boolean deleted = rs.getBoolean("deleted");
+                    Long serverId = rs.getLong("id");
+                    String ipAddress = rs.getString("ip_address");
+                    Server server = null;
+                    if (!deleted) {
+                        Integer status = rs.getObject("status", Integer.class);
+                        String type = rs.getString("type");
+                        server = Server.builder()
+                                .id(serverId)
+                                .ipAddress(ipAddress)
+                                .name(rs.getString("name"))
+                                .memoryBytes(rs.getObject("memory_bytes", Long.class))
+                                .type(type == null ? null : ServerType.valueOf(type))
+                                .status(status == null ? null : Status.values()[status])
+                                .build();
+                    }
+                    return ServerChange.builder()
+                            .version(rs.getLong("change_version"))
+                            .id(serverId)
+                            .ipAddress(ipAddress)
+                            .deleted(deleted)
+                            .server(server)
+                            .build();
+                },
+                version, id, limit, version, id, limit, limit);
+    }
+}
@@ -1,14 +1,37 @@
 package dev.yogi.server.manager.repository;
 
 import dev.yogi.server.manager.model.Server;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ServerRepository extends JpaRepository<Server, Long> {
+public interface ServerRepository extends JpaRepository<Server, Long>, ServerSearchRepository {
 
     Optional<Server> findByIpAddress(String ipAddress);
     Optional<Server> findByIpAddressAndIdNot(String ipAddress, Long id);
+    List<Server> findByIpAddressIn(Collection<String> ipAddresses);
+
+    // keyset page, a List return type means Spring Data does not issue a count query
+    List<Server> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // server side cursor, pgjdbc only honours the fetch size inside a transaction
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select s from Server s order by s.id")
+    Stream<Server> streamAll();
+
+    @Query("select s.ipAddress from Server s where s.ipAddress in :ipAddresses")
+    List<String> findExistingIpAddresses(@Param("ipAddresses") Collection<String> ipAddresses);
 }
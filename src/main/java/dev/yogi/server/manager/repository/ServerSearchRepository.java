@@ -0,0 +1,31 @@
+package dev.yogi.server.manager.repository;
+
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerPatch;
+import dev.yogi.server.manager.model.ServerSearchFilter;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ServerSearchRepository {
+
+    /**
+     * Keyset page of servers matching every non null field of the filter, ordered by id.
+     */
+    List<Server> search(ServerSearchFilter filter, long afterId, int limit);
+
+    /**
+     * Keyset page of the ids of matching servers, without loading the entities.
+     */
+    List<Long> searchIds(ServerSearchFilter filter, long afterId, int limit);
+
+    /**
+     * Applies the patch with a single {@code UPDATE} to the given servers that still match the filter.
+     */
+    int update(ServerSearchFilter filter, Collection<Long> ids, ServerPatch patch);
+
+    /**
+     * Removes the given servers that still match the filter with a single {@code DELETE}.
+     */
+    int delete(ServerSearchFilter filter, Collection<Long> ids);
+}
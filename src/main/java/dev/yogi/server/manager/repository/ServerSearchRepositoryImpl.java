@@ -0,0 +1,126 @@
+package dev.yogi.server.manager.repository;
+
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerPatch;
+import dev.yogi.server.manager.model.ServerSearchFilter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ServerSearchRepositoryImpl implements ServerSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Server> search(ServerSearchFilter filter, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Server> query = cb.createQuery(Server.class);
+        Root<Server> server = query.from(Server.class);
+
+        List<Predicate> predicates = predicates(cb, server, filter);
+        predicates.add(cb.greaterThan(server.get("id"), afterId));
+        query.select(server)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(server.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long> searchIds(ServerSearchFilter filter, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Server> server = query.from(Server.class);
+
+        List<Predicate> predicates = predicates(cb, server, filter);
+        predicates.add(cb.greaterThan(server.get("id"), afterId));
+        query.select(server.get("id"))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(server.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int update(ServerSearchFilter filter, Collection<Long> ids, ServerPatch patch) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Server> update = cb.createCriteriaUpdate(Server.class);
+        Root<Server> server = update.from(Server.class);
+
+        if (patch.getIpAddress() != null) {
+            update.set("ipAddress", patch.getIpAddress());
+        }
+        if (patch.getName() != null) {
+            update.set("name", patch.getName());
+        }
+        if (patch.getMemoryBytes() != null) {
+            update.set("memoryBytes", patch.getMemoryBytes());
+        }
+        if (patch.getType() != null) {
+            update.set("type", patch.getType());
+        }
+        if (patch.getStatus() != null) {
+            update.set("status", patch.getStatus());
+        }
+
+        // bulk statements bypass the entity, the version is incremented by hand
+        update.set(server.<Long>get("version"), cb.sum(server.<Long>get("version"), 1L));
+
+        List<Predicate> predicates = predicates(cb, server, filter);
+        predicates.add(server.get("id").in(ids));
+        update.where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int delete(ServerSearchFilter filter, Collection<Long> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Server> delete = cb.createCriteriaDelete(Server.class);
+        Root<Server> server = delete.from(Server.class);
+
+        List<Predicate> predicates = predicates(cb, server, filter);
+        predicates.add(server.get("id").in(ids));
+        delete.where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    // only add predicates for the fields that are set so each one can use its index
+    private static List<Predicate> predicates(CriteriaBuilder cb, Root<Server> server, ServerSearchFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getIds() != null) {
+            predicates.add(server.get("id").in(filter.getIds()));
+        }
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(server.get("status"), filter.getStatus()));
+        }
+        if (filter.getType() != null) {
+            predicates.add(cb.equal(server.get("type"), filter.getType()));
+        }
+        if (filter.getMinMemoryBytes() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(server.get("memoryBytes"), filter.getMinMemoryBytes()));
+        }
+        if (filter.getMaxMemoryBytes() != null) {
+            predicates.add(cb.lessThanOrEqualTo(server.get("memoryBytes"), filter.getMaxMemoryBytes()));
+        }
+        if (filter.getNamePrefix() != null && !filter.getNamePrefix().isEmpty()) {
+            predicates.add(cb.like(server.get("name"), escapeLike(filter.getNamePrefix()) + "%", '\\'));
+        }
+        return predicates;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
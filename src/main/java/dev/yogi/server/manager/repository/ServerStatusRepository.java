@@ -0,0 +1,54 @@
+package dev.yogi.server.manager.repository;
+
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.repository.ServerUpdateRepository.UpdatedServer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched status writes to the {@code server} table, bypassing the entity so only the
+ * status column is touched. Servers removed meanwhile are skipped by the id predicate.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ServerStatusRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes every given status that differs from the stored one with a single statement. Rows already
+     * holding their status are neither locked nor written, so callers need not know the stored status.
+     *
+     * @return the servers whose status changed, as they were before and after the write
+     */
+    public List<UpdatedServer> updateStatuses(Map<Long, Status> statuses) {
+        if (statuses.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder values = new StringBuilder();
+        List<Object> args = new ArrayList<>(statuses.size() * 2);
+        statuses.forEach((id, status) -> {
+            values.append(values.length() == 0 ? "(?, ?)" : ", (?, ?)");
+            args.add(id);
+            args.add(status.ordinal());
+        });
+        // the locked rows are checked again once a concurrent writer commits, its status wins the comparison
+        return jdbcTemplate.query("UPDATE server s SET status = old.next_status "
+                        + "FROM (SELECT server.id, server.status, v.status AS next_status FROM server "
+                        + "JOIN (VALUES " + values + ") AS v(id, status) ON server.id = v.id "
+                        + "WHERE server.status <> v.status FOR UPDATE OF server) old "
+                        + "WHERE s.id = old.id "
+                        + "RETURNING old.status AS old_status, s.id, s.ip_address, s.name, s.memory_bytes, s.type, s.status, s.version",
+                (rs, rowNum) -> {
+                    Server after = ServerUpdateRepository.mapServer(rs, "");
+                    return new UpdatedServer(after.toBuilder().status(Status.values()[rs.getInt("old_status")]).build(), after);
+                },
+                args.toArray());
+    }
+}
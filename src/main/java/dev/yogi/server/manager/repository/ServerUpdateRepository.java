@@ -0,0 +1,76 @@
+package dev.yogi.server.manager.repository;
+
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerType;
+import dev.yogi.server.manager.model.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Versioned updates of a single server without loading the entity first. Uniqueness of the ip address
+ * is left to the {@code uk_96tx503up4941ibvsnhh8itdi} constraint, a clash surfaces as a
+ * {@link org.springframework.dao.DuplicateKeyException}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ServerUpdateRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes every field of the server and increments its version with a single statement, provided the
+     * stored version still equals the given one. The locked self join hands back the row as it was before,
+     * {@code RETURNING} the row as written.
+     *
+     * @return the server before and after the update, empty when no server has this id and version
+     */
+    public Optional<UpdatedServer> update(Server server) {
+        List<UpdatedServer> updated = jdbcTemplate.query("UPDATE server s SET ip_address = ?, name = ?, memory_bytes = ?, "
+                        + "type = ?, status = ?, version = s.version + 1 "
+                        + "FROM (SELECT * FROM server WHERE id = ? FOR UPDATE) old "
+                        + "WHERE s.id = old.id AND s.version = ? "
+                        + "RETURNING old.id AS old_id, old.ip_address AS old_ip_address, old.name AS old_name, "
+                        + "old.memory_bytes AS old_memory_bytes, old.type AS old_type, old.status AS old_status, "
+                        + "old.version AS old_version, s.id, s.ip_address, s.name, s.memory_bytes, s.type, s.status, s.version",
+                (rs, rowNum) -> new UpdatedServer(mapServer(rs, "old_"), mapServer(rs, "")),
+                server.getIpAddress(),
+                server.getName(),
+                server.getMemoryBytes(),
+                server.getType() == null ? null : server.getType().name(),
+                server.getStatus() == null ? null : server.getStatus().ordinal(),
+                server.getId(),
+                server.getVersion());
+        return updated.stream().findFirst();
+    }
+
+    public Optional<Long> findVersion(Long id) {
+        return jdbcTemplate.queryForList("SELECT version FROM server WHERE id = ?", Long.class, id).stream().findFirst();
+    }
+
+    static Server mapServer(ResultSet rs, String prefix) throws SQLException {
+        Integer status = rs.getObject(prefix + "status", Integer.class);
+        String type = rs.getString(prefix + "type");
+        return Server.builder()
+                .id(rs.getLong(prefix + "id"))
+                .ipAddress(rs.getString(prefix + "ip_address"))
+                .name(rs.getString(prefix + "name"))
+                .memoryBytes(rs.getObject(prefix + "memory_bytes", Long.class))
+                .type(type == null ? null : ServerType.valueOf(type))
+                .status(status == null ? null : Status.values()[status])
+                .version(rs.getLong(prefix + "version"))
+                .build();
+    }
+
+    @Value
+    public static class UpdatedServer {
+        Server before;
+        Server after;
+    }
+}
@@ -0,0 +1,67 @@
+package dev.yogi.server.manager.repository;
+
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.model.StatusHistory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Append-only access to the {@code server_status_history} table.
+ * The table is range partitioned by month on {@code checked_at}, see {@code db/migration/V1__baseline.sql}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StatusHistoryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void appendAll(List<StatusHistory> history) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO server_status_history (server_id, status, latency_ms, checked_at) VALUES (?, ?, ?, ?)",
+                history,
+                history.size(),
+                (ps, entry) -> {
+                    ps.setLong(1, entry.getServerId());
+                    ps.setString(2, entry.getStatus().name());
+                    ps.setObject(3, entry.getLatencyMs());
+                    ps.setObject(4, entry.getCheckedAt());
+                });
+    }
+
+    /**
+     * Latest {@code limit} entries of every given server in a single query, newest first.
+     */
+    public List<StatusHistory> findLatest(Collection<Long> serverIds, int limit) {
+        return jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "SELECT h.server_id, h.status, h.latency_ms, h.checked_at "
+                                    + "FROM unnest(?) AS s(id) "
+                                    + "CROSS JOIN LATERAL (SELECT * FROM server_status_history "
+                                    + "WHERE server_id = s.id ORDER BY checked_at DESC LIMIT ?) h");
+                    statement.setArray(1, connection.createArrayOf("bigint", serverIds.toArray()));
+                    statement.setInt(2, limit);
+                    return statement;
+                },
+                (rs, rowNum) -> StatusHistory.builder()
+                        .serverId(rs.getLong("server_id"))
+                        .status(Status.valueOf(rs.getString("status")))
+                        .latencyMs(rs.getObject("latency_ms", Double.class))
+                        .checkedAt(rs.getObject("checked_at", OffsetDateTime.class))
+                        .build());
+    }
+
+    public void createPartitions(int monthsAhead) {
+        jdbcTemplate.execute("SELECT create_server_status_history_partitions(" + monthsAhead + ")");
+    }
+
+    public void dropPartitionsOlderThan(int months) {
+        jdbcTemplate.execute("SELECT drop_server_status_history_partitions(" + months + ")");
+    }
+}
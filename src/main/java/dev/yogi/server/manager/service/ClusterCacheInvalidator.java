@@ -0,0 +1,189 @@
+package dev.yogi.server.manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.datasource.ReadAfterWriteGuard;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.event.ServersBulkChangedEvent;
+import dev.yogi.server.manager.model.ServerStatusChange;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.repository.ServerRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link ServerCache} of every replica consistent. Changes are broadcast with
+ * {@code pg_notify} inside the writing transaction, so peers only hear about committed changes,
+ * and a listener thread evicts the entries changed by other replicas. Status flips made by other
+ * replicas are also handed to the local {@link ServerStatusPublisher} subscribers.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "server-manager.cache.cluster-invalidation", name = "enabled", matchIfMissing = true)
+public class ClusterCacheInvalidator implements SmartLifecycle {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ServerCache serverCache;
+    private final ServerStatusPublisher serverStatusPublisher;
+    private final ServerRepository serverRepository;
+    private final ServerManagerProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ReadAfterWriteGuard readAfterWriteGuard;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onServerChanged(ServerChangedEvent event) {
+        try {
+            Invalidation invalidation = new Invalidation(nodeId, event.getId(), new ArrayList<>(event.getIpAddresses()), null, null, false);
+            if (event.getBefore() != null && event.getAfter() != null && event.isStatusChanged()) {
+                invalidation.setPreviousStatus(event.getBefore().getStatus());
+                invalidation.setStatus(event.getAfter().getStatus());
+            }
+            String payload = objectMapper.writeValueAsString(invalidation);
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", getChannel(), payload);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing invalidation of server {}: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    // the ids of a bulk change can exceed the notify payload limit, peers drop their whole cache instead
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onServersBulkChanged(ServersBulkChangedEvent event) {
+        try {
+            String payload = objectMapper.writeValueAsString(new Invalidation(nodeId, null, List.of(), null, null, true));
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", getChannel(), payload);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing invalidation of {} servers: {}", event.getIds().size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "cluster-cache-invalidator");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + getChannel());
+                }
+                log.info("Listening for cache invalidations on channel {}", getChannel());
+
+                // anything changed while we were not listening may still be cached
+                serverCache.invalidateAll();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Cache invalidation listener failed, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(properties.getCache().getClusterInvalidation().getReconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies an invalidation received on the channel, the ones sent by this node are ignored.
+     */
+    public void handle(String payload) {
+        try {
+            Invalidation invalidation = objectMapper.readValue(payload, Invalidation.class);
+            // reloads after the eviction must not read a replica that is behind the other node's write
+            if (!nodeId.equals(invalidation.getNodeId()) && invalidation.isAll()) {
+                log.debug("Invalidating cache after bulk change by node {}", invalidation.getNodeId());
+                readAfterWriteGuard.markAllWritten();
+                serverCache.invalidateAll();
+            } else if (!nodeId.equals(invalidation.getNodeId())) {
+                log.debug("Evicting server {} changed by node {}", invalidation.getId(), invalidation.getNodeId());
+                readAfterWriteGuard.markWritten(List.of(invalidation.getId()), invalidation.getIpAddresses());
+                serverCache.evict(invalidation.getId(), invalidation.getIpAddresses());
+                if (invalidation.getStatus() != null && serverStatusPublisher.hasSubscribers()) {
+                    serverRepository.findById(invalidation.getId()).ifPresent(server -> serverStatusPublisher.publish(ServerStatusChange.builder()
+                            .server(server)
+                            .previousStatus(invalidation.getPreviousStatus())
+                            .status(invalidation.getStatus())
+                            .changedAt(OffsetDateTime.now())
+                            .build()));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Ignoring malformed invalidation {}: {}", payload, e.getMessage());
+        }
+    }
+
+    private String getChannel() {
+        return properties.getCache().getClusterInvalidation().getChannel();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Invalidation {
+        private String nodeId;
+        private Long id;
+        private List<String> ipAddresses;
+        private Status previousStatus;
+        private Status status;
+        private boolean all;
+    }
+}
@@ -0,0 +1,167 @@
+package dev.yogi.server.manager.service;
+
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.model.StatusHistory;
+import dev.yogi.server.manager.probe.ProbeResult;
+import dev.yogi.server.manager.probe.ProbeStrategy;
+import dev.yogi.server.manager.repository.ServerRepository;
+import dev.yogi.server.manager.repository.StatusHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.IntervalTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes every registered server once per interval in the background so that
+ * {@code Server.status} stays fresh without probing on the request path. With several replicas
+ * each one probes only the servers the {@link ProbeShardCoordinator} assigns to it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "server-manager.health-check", name = "enabled", matchIfMissing = true)
+public class HealthCheckScheduler implements SchedulingConfigurer {
+
+    private final ServerRepository serverRepository;
+    private final StatusHistoryRepository statusHistoryRepository;
+    private final ServerManagerProperties properties;
+    private final ProbeStrategy probeStrategy;
+    private final ExecutorService pingExecutor;
+    private final StatusWriteBuffer statusWriteBuffer;
+    private final ProbeShardCoordinator probeShardCoordinator;
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "health-check-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Queue<StatusHistory> pendingHistory = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        ServerManagerProperties.HealthCheck healthCheck = properties.getHealthCheck();
+        registrar.addFixedRateTask(new IntervalTask(this::sweep, healthCheck.getInterval().toMillis(), 0));
+        registrar.addFixedDelayTask(this::flushHistory, healthCheck.getHistoryFlushInterval().toMillis());
+        registrar.addFixedDelayTask(new IntervalTask(this::maintainPartitions, TimeUnit.HOURS.toMillis(6), 0));
+    }
+
+    /**
+     * Schedules one probe per owned server, each at a stable offset inside the interval plus jitter.
+     * Offsets are counted from the wall clock, so a server moving to another replica keeps its slot.
+     */
+    public void sweep() {
+        List<Server> servers = serverRepository.findAll();
+        int total = servers.size();
+        servers.removeIf(server -> !probeShardCoordinator.owns(server));
+        long intervalMs = properties.getHealthCheck().getInterval().toMillis();
+        long jitterMs = properties.getHealthCheck().getJitter().toMillis();
+        long phase = Math.floorMod(System.currentTimeMillis(), intervalMs);
+        log.info("Scheduling health check of {} of {} servers over {} ms", servers.size(), total, intervalMs);
+
+        for (Server server : servers) {
+            dispatcher.schedule(() -> dispatch(server), delay(server.getId(), phase, intervalMs, jitterMs), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns how long after a sweep started at {@code phase} of the interval the server is probed.
+     * Jitter moves the probe around its slot but never out of the interval.
+     */
+    public static long delay(long serverId, long phase, long intervalMs, long jitterMs) {
+        long offset = Math.floorMod(Math.floorMod(Long.hashCode(serverId) * 0x9E3779B9L, intervalMs) - phase, intervalMs);
+        if (jitterMs > 0) {
+            offset += ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1);
+        }
+        return Math.max(0, Math.min(offset, intervalMs - 1));
+    }
+
+    private void dispatch(Server server) {
+        // check if the server still belongs to this replica, the ring may have changed since the sweep
+        if (!probeShardCoordinator.owns(server)) {
+            log.debug("Skipping health check of {}, owned by another replica", server.getIpAddress());
+            return;
+        }
+        // skip hosts whose previous probe has not finished yet
+        if (!inFlight.add(server.getId())) {
+            log.debug("Skipping health check of {}, previous probe still running", server.getIpAddress());
+            return;
+        }
+        try {
+            // results are handled on the ping executor, never on the thread completing the probe
+            probeStrategy.probe(server.getIpAddress(), properties.getPing().getTimeout())
+                    .whenCompleteAsync((result, error) -> {
+                        try {
+                            if (error != null) {
+                                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                                log.warn("Error checking server {} : {}", server.getIpAddress(), cause.getMessage());
+                            } else {
+                                record(server, result);
+                            }
+                        } finally {
+                            inFlight.remove(server.getId());
+                        }
+                    }, pingExecutor);
+        } catch (RuntimeException e) {
+            inFlight.remove(server.getId());
+            log.warn("Could not dispatch health check of {} : {}", server.getIpAddress(), e.getMessage());
+        }
+    }
+
+    private void record(Server server, ProbeResult result) {
+        Status status = result.isReachable() ? Status.SERVER_UP : Status.SERVER_DOWN;
+        pendingHistory.add(StatusHistory.builder()
+                .serverId(server.getId())
+                .status(status)
+                .latencyMs(result.getLatencyMs())
+                .checkedAt(OffsetDateTime.now())
+                .build());
+
+        // the server was read at the sweep, the flush compares the probe against the stored status
+        if (statusWriteBuffer.submit(server, status)) {
+            log.info("Server {} probed {}, it was {} at the sweep", server.getIpAddress(), status, server.getStatus());
+        }
+    }
+
+    public void flushHistory() {
+        List<StatusHistory> batch = new ArrayList<>();
+        StatusHistory entry;
+        while ((entry = pendingHistory.poll()) != null) {
+            batch.add(entry);
+        }
+        if (!batch.isEmpty()) {
+            statusHistoryRepository.appendAll(batch);
+        }
+    }
+
+    private void maintainPartitions() {
+        statusHistoryRepository.createPartitions(1);
+        statusHistoryRepository.dropPartitionsOlderThan(properties.getHealthCheck().getHistoryRetentionMonths());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        flushHistory();
+    }
+}
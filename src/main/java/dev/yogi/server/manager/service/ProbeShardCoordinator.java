@@ -0,0 +1,116 @@
+package dev.yogi.server.manager.service;
+
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.repository.ProbeLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the health checks between the replicas. Each replica renews a lease in {@code probe_lease}
+ * and builds a {@link ConsistentHashRing} of the live ones, a server is probed by the replica owning
+ * its id. A replica that joins or stops renewing changes the ring of the others with the next
+ * heartbeat, and only the servers next to its points move. A replica that could not renew its own
+ * lease for a whole lease period probes nothing, the others have taken its servers over by then.
+ * The lease is renewed on its own thread, a long sweep or flush on the shared scheduler cannot
+ * delay it past its expiry.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "server-manager.health-check", name = "enabled", matchIfMissing = true)
+public class ProbeShardCoordinator {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ProbeLeaseRepository probeLeaseRepository;
+    private final ServerManagerProperties properties;
+
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "probe-lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ConsistentHashRing ring;
+    private volatile long renewedAt;
+
+    @PostConstruct
+    public void start() {
+        if (properties.getHealthCheck().getSharding().isEnabled()) {
+            long renewInterval = properties.getHealthCheck().getSharding().getRenewInterval().toMillis();
+            heartbeats.scheduleWithFixedDelay(this::heartbeat, 0, renewInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Renews the lease of this replica and rebuilds the ring when replicas joined or left.
+     */
+    public synchronized void heartbeat() {
+        ServerManagerProperties.Sharding sharding = properties.getHealthCheck().getSharding();
+        try {
+            probeLeaseRepository.renew(nodeId, sharding.getLeaseTtl());
+            renewedAt = System.nanoTime();
+            List<String> nodes = probeLeaseRepository.findLiveNodes();
+            if (ring == null || !ring.getNodes().equals(Set.copyOf(nodes))) {
+                log.info("Sharding health checks between {} replicas, this one is {}", nodes.size(), nodeId);
+                ring = new ConsistentHashRing(nodes, sharding.getVirtualNodes());
+            }
+        } catch (RuntimeException e) {
+            // an exception escaping the task would cancel every later renewal
+            log.warn("Could not renew probe lease of {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Returns whether this replica probes the server.
+     */
+    public boolean owns(Server server) {
+        ServerManagerProperties.Sharding sharding = properties.getHealthCheck().getSharding();
+        if (!sharding.isEnabled()) {
+            return true;
+        }
+        if (ring == null) {
+            heartbeat();
+        }
+
+        // check if the lease is still held, otherwise the server may belong to another replica already
+        ConsistentHashRing current = ring;
+        if (current == null || System.nanoTime() - renewedAt > sharding.getLeaseTtl().toNanos()) {
+            return false;
+        }
+        return nodeId.equals(current.owner(server.getId()));
+    }
+
+    /**
+     * Gives up the lease so the other replicas take the servers over without waiting for it to expire.
+     */
+    @PreDestroy
+    public void release() {
+        heartbeats.shutdownNow();
+        if (ring == null) {
+            return;
+        }
+        try {
+            probeLeaseRepository.release(nodeId);
+        } catch (DataAccessException e) {
+            log.warn("Could not release probe lease of {}: {}", nodeId, e.getMessage());
+        }
+    }
+}
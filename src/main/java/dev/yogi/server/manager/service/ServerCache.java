@@ -0,0 +1,124 @@
+package dev.yogi.server.manager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.event.ServersBulkChangedEvent;
+import dev.yogi.server.manager.model.Server;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of servers keyed by id and by ip address.
+ * Entries are evicted once a change to the server has been committed. Bulk loads run outside the
+ * cache's per key locks, entries they load are dropped again when an eviction happened meanwhile.
+ */
+@Slf4j
+@Component
+public class ServerCache implements MeterBinder {
+
+    private final Cache<Long, Server> byId;
+    private final Cache<String, Server> byIpAddress;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ServerCache(ServerManagerProperties properties) {
+        ServerManagerProperties.Cache cache = properties.getCache();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(cache.getMaximumSize())
+                .expireAfterWrite(cache.getTtl())
+                .recordStats()
+                .build();
+        this.byIpAddress = Caffeine.newBuilder()
+                .maximumSize(cache.getMaximumSize())
+                .expireAfterWrite(cache.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    public Server getById(Long id, Function<Long, Server> loader) {
+        return byId.get(id, loader);
+    }
+
+    public Server getByIpAddress(String ipAddress, Function<String, Server> loader) {
+        return byIpAddress.get(ipAddress, loader);
+    }
+
+    public Map<Long, Server> getAllById(Collection<Long> ids, Function<Set<Long>, Map<Long, Server>> loader) {
+        return getAll(byId, ids, loader);
+    }
+
+    public Map<String, Server> getAllByIpAddress(Collection<String> ipAddresses, Function<Set<String>, Map<String, Server>> loader) {
+        return getAll(byIpAddress, ipAddresses, loader);
+    }
+
+    private <K> Map<K, Server> getAll(Cache<K, Server> cache, Collection<K> keys, Function<Set<K>, Map<K, Server>> loader) {
+        long generation = evictions.get();
+        Map<K, Server> servers = cache.getAll(keys, missing -> loader.apply(toSet(missing)));
+        // check if a change was committed while loading, the loaded rows may predate it
+        if (evictions.get() != generation) {
+            log.debug("Dropping {} bulk loaded servers, the cache was evicted while loading", servers.size());
+            cache.invalidateAll(servers.keySet());
+        }
+        return servers;
+    }
+
+    public void evict(Long id, Iterable<String> ipAddresses) {
+        // counted before invalidating, a bulk load storing after the invalidation still sees it
+        evictions.incrementAndGet();
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        ipAddresses.forEach(byIpAddress::invalidate);
+    }
+
+    public void evictAll(Collection<Long> ids) {
+        evictions.incrementAndGet();
+        byId.invalidateAll(ids);
+        // the ip addresses of bulk changed servers are not known, drop entries pointing at their ids
+        Set<Long> evicted = new HashSet<>(ids);
+        byIpAddress.asMap().values().removeIf(server -> evicted.contains(server.getId()));
+    }
+
+    public void invalidateAll() {
+        evictions.incrementAndGet();
+        byId.invalidateAll();
+        byIpAddress.invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onServerChanged(ServerChangedEvent event) {
+        log.debug("Evicting server {} from cache", event.getId());
+        evict(event.getId(), event.getIpAddresses());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onServersBulkChanged(ServersBulkChangedEvent event) {
+        log.debug("Evicting {} bulk changed servers from cache", event.getIds().size());
+        evictAll(event.getIds());
+    }
+
+    private static <K> Set<K> toSet(Iterable<? extends K> keys) {
+        Set<K> set = new HashSet<>();
+        keys.forEach(set::add);
+        return set;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "servers.by-id");
+        CaffeineCacheMetrics.monitor(registry, byIpAddress, "servers.by-ip-address");
+    }
+}
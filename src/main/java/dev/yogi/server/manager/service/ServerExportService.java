@@ -0,0 +1,121 @@
+package dev.yogi.server.manager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.model.ExportFormat;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.repository.ServerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the whole inventory to an output stream with constant memory: rows come from a server side
+ * cursor and the persistence context is cleared every chunk so loaded entities can be collected.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ServerExportService {
+
+    private static final String[] COLUMNS = {"id", "ipAddress", "name", "memoryBytes", "type", "status"};
+
+    private final ServerRepository serverRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ServerManagerProperties properties;
+
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting servers as {}", format);
+        int chunkSize = properties.getBulk().getChunkSize();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .setRootValueSeparator(null);
+
+        if (format == ExportFormat.CSV) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        try (Stream<Server> servers = serverRepository.streamAll()) {
+            Iterator<Server> iterator = servers.iterator();
+            while (iterator.hasNext()) {
+                Server server = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, server);
+                } else {
+                    writeJson(generator, server);
+                    generator.flush();
+                    writer.write('\n');
+                }
+
+                // drop exported entities from the persistence context and push the chunk to the client
+                if (++rows % chunkSize == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} servers", rows);
+        return rows;
+    }
+
+    private static void writeCsv(Writer writer, Server server) throws IOException {
+        writer.write(String.valueOf(server.getId()));
+        writer.write(',');
+        writer.write(csv(server.getIpAddress()));
+        writer.write(',');
+        writer.write(csv(server.getName()));
+        writer.write(',');
+        writer.write(server.getMemoryBytes() == null ? "" : server.getMemoryBytes().toString());
+        writer.write(',');
+        writer.write(server.getType() == null ? "" : server.getType().name());
+        writer.write(',');
+        writer.write(server.getStatus() == null ? "" : server.getStatus().name());
+        writer.write('\n');
+    }
+
+    private static void writeJson(JsonGenerator generator, Server server) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", server.getId());
+        generator.writeStringField("ipAddress", server.getIpAddress());
+        generator.writeStringField("name", server.getName());
+        if (server.getMemoryBytes() == null) {
+            generator.writeNullField("memoryBytes");
+        } else {
+            generator.writeNumberField("memoryBytes", server.getMemoryBytes());
+        }
+        generator.writeStringField("type", server.getType() == null ? null : server.getType().name());
+        generator.writeStringField("status", server.getStatus() == null ? null : server.getStatus().name());
+        generator.writeEndObject();
+    }
+
+    // RFC 4180 quoting, only when the value needs it
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,60 +1,296 @@
 package dev.yogi.server.manager.service;
 
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.datasource.ReadAfterWriteGuard;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.event.ServersBulkChangedEvent;
 import dev.yogi.server.manager.exception.BadRequestException;
 import dev.yogi.server.manager.exception.InternalServerException;
 import dev.yogi.server.manager.exception.NotFoundException;
+import dev.yogi.server.manager.model.FleetStats;
+import dev.yogi.server.manager.model.ImportReport;
+import dev.yogi.server.manager.model.ImportResult;
+import dev.yogi.server.manager.model.PageInfo;
+import dev.yogi.server.manager.model.PingSummary;
 import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerChange;
+import dev.yogi.server.manager.model.ServerChangeFeed;
+import dev.yogi.server.manager.model.ServerConnection;
+import dev.yogi.server.manager.model.ServerEdge;
+import dev.yogi.server.manager.model.ServerPatch;
+import dev.yogi.server.manager.model.ServerSearchFilter;
 import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.model.StatusHistory;
+import dev.yogi.server.manager.probe.CoalescingProbeStrategy;
+import dev.yogi.server.manager.probe.ProbeResult;
+import dev.yogi.server.manager.probe.ProbeStrategy;
+import dev.yogi.server.manager.repository.FleetSummaryRepository;
+import dev.yogi.server.manager.repository.ServerChangeRepository;
 import dev.yogi.server.manager.repository.ServerRepository;
+import dev.yogi.server.manager.repository.ServerUpdateRepository;
+import dev.yogi.server.manager.repository.StatusHistoryRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
-import java.io.IOException;
-import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
 @Transactional
+@Timed(value = "server.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class ServerService {
 
+    // headroom over the probe timeout before a single ping is given up
+    private static final Duration PING_SLACK = Duration.ofSeconds(1);
+
     private final ServerRepository serverRepository;
+    private final ServerManagerProperties properties;
+    private final ProbeStrategy probeStrategy;
+    private final CoalescingProbeStrategy pingProbeStrategy;
+    private final StatusWriteBuffer statusWriteBuffer;
+    private final ServerCache serverCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StatusHistoryRepository statusHistoryRepository;
+    private final FleetSummaryRepository fleetSummaryRepository;
+    private final ServerChangeRepository serverChangeRepository;
+    private final ServerUpdateRepository serverUpdateRepository;
+    private final ReadAfterWriteGuard readAfterWriteGuard;
 
 
+    // listings, searches and the fleet summary may read a replica that is behind a write, see ReadAfterWriteGuard
+    @Transactional(readOnly = true)
     public List<Server> findAll(int page, int size) {
         log.info("Finding all servers");
         return serverRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Order.asc("id"))))
                 .getContent();
     }
 
+    @Transactional(readOnly = true)
+    public ServerConnection findConnection(int first, String after) {
+        log.info("Finding servers after cursor: {}", after);
+        if (first < 1) {
+            throw new BadRequestException("Argument first must be greater than 0");
+        }
+
+        // fetch one extra row to know whether there is a next page
+        long afterId = after == null ? 0L : decodeCursor(after);
+        List<Server> servers = serverRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, first + 1));
+        return toConnection(servers, first);
+    }
+
+    @Transactional(readOnly = true)
+    public ServerConnection search(ServerSearchFilter filter, int first, String after) {
+        log.info("Searching servers with filter: {} after cursor: {}", filter, after);
+        if (first < 1) {
+            throw new BadRequestException("Argument first must be greater than 0");
+        }
+
+        // check if memory range is valid
+        ServerSearchFilter criteria = filter == null ? new ServerSearchFilter() : filter;
+        if (criteria.getMinMemoryBytes() != null && criteria.getMaxMemoryBytes() != null
+                && criteria.getMinMemoryBytes() > criteria.getMaxMemoryBytes()) {
+            throw new BadRequestException("Argument minMemoryBytes must not be greater than maxMemoryBytes");
+        }
+
+        long afterId = after == null ? 0L : decodeCursor(after);
+        return toConnection(serverRepository.search(criteria, afterId, first + 1), first);
+    }
+
+    @Transactional(readOnly = true)
+    public FleetStats fleetStats() {
+        log.info("Finding fleet stats");
+        return fleetSummaryRepository.findStats();
+    }
+
+    /**
+     * Returns the servers written or deleted after the cursor in the order they became visible, a client
+     * keeps the returned cursor and asks again until {@code hasMore} is false.
+     */
+    @Transactional(readOnly = true)
+    public ServerChangeFeed findChangesSince(String cursor, int limit) {
+        log.info("Finding server changes since cursor: {}", cursor);
+        if (limit < 1) {
+            throw new BadRequestException("Argument limit must be greater than 0");
+        }
+
+        // fetch one extra row to know whether more changes are waiting
+        long[] position = cursor == null ? new long[]{0L, 0L} : decodeChangeCursor(cursor);
+        List<ServerChange> changes = serverChangeRepository.findChangesSince(position[0], position[1], limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        // an empty page keeps the position, the client asks again later
+        if (!changes.isEmpty()) {
+            ServerChange last = changes.get(changes.size() - 1);
+            position = new long[]{last.getVersion(), last.getId()};
+        }
+        return ServerChangeFeed.builder()
+                .changes(changes)
+                .cursor(encodeChangeCursor(position[0], position[1]))
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
     public Server findById(Long id) {
         log.info("Finding server by id: {}", id);
-        return serverRepository.findById(id).orElseThrow(() -> {
-            log.error("Server not found");
-            return new NotFoundException("Server not found");
+        return serverCache.getById(id, key -> {
+            readAfterWriteGuard.pinIfRecentlyWritten(List.of(key), List.of());
+            return serverRepository.findById(key).orElseThrow(() -> {
+                log.error("Server not found");
+                return new NotFoundException("Server not found");
+            });
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Server> findAllByIds(Collection<Long> ids) {
+        log.info("Finding servers by ids: {}", ids);
+        return serverCache.getAllById(ids, missing -> {
+            readAfterWriteGuard.pinIfRecentlyWritten(missing, List.of());
+            return serverRepository.findAllById(missing).stream()
+                    .collect(Collectors.toMap(Server::getId, Function.identity()));
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Server> findAllByIpAddresses(Collection<String> ipAddresses) {
+        log.info("Finding servers by ip addresses: {}", ipAddresses);
+        return serverCache.getAllByIpAddress(ipAddresses, missing -> {
+            readAfterWriteGuard.pinIfRecentlyWritten(List.of(), missing);
+            return serverRepository.findByIpAddressIn(missing).stream()
+                    .collect(Collectors.toMap(Server::getIpAddress, Function.identity()));
         });
     }
 
+    @Transactional(readOnly = true)
+    public Map<Server, List<StatusHistory>> findStatusHistory(List<Server> servers) {
+        log.info("Finding status history of {} servers", servers.size());
+        Map<Long, List<StatusHistory>> history = findLatestHistory(servers, properties.getGraphql().getHistoryPerServer());
+        Map<Server, List<StatusHistory>> result = new LinkedHashMap<>();
+        servers.forEach(server -> result.put(server, history.getOrDefault(server.getId(), List.of())));
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Server, StatusHistory> findLatestProbes(List<Server> servers) {
+        log.info("Finding latest probe of {} servers", servers.size());
+        Map<Long, List<StatusHistory>> history = findLatestHistory(servers, 1);
+        Map<Server, StatusHistory> result = new LinkedHashMap<>();
+        servers.forEach(server -> result.put(server, history.getOrDefault(server.getId(), List.of()).stream()
+                .findFirst()
+                .orElse(null)));
+        return result;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Server ping(String ipAddress) {
-        log.info("Pinging server: {}", ipAddress);
+        return ping(ipAddress, false);
+    }
 
-        // check if server with ip address exists
-        Server server = findServerByIpAddress(ipAddress);
-        try {
-            InetAddress inetAddress = InetAddress.getByName(ipAddress);
-            server.setStatus(inetAddress.isReachable(5000) ? Status.SERVER_UP : Status.SERVER_DOWN);
-            serverRepository.save(server);
-            return server;
-        } catch (IOException e) {
-            throw new InternalServerException("Error pinging server : " + e.getMessage());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Server ping(String ipAddress, boolean force) {
+        log.info("Pinging server: {}, force: {}", ipAddress, force);
+
+        // check if server with ip address exists, bypassing the cache as the stored status is compared
+        Server server = serverRepository.findByIpAddress(ipAddress).orElseThrow(() -> {
+            throw new NotFoundException("Server with ip address " + ipAddress + " not found");
+        });
+        ProbeResult result = probe(ipAddress, force);
+        Status status = result.isReachable() ? Status.SERVER_UP : Status.SERVER_DOWN;
+        // the change is written with the next status flush, nothing is written if it is unchanged
+        statusWriteBuffer.submit(server, status);
+        return server.toBuilder().status(status).build();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PingSummary pingAll() {
+        log.info("Pinging all servers");
+        long started = System.nanoTime();
+        Duration timeout = properties.getPing().getTimeout();
+        List<Server> servers = serverRepository.findAll();
+
+        // start all probes, the strategy bounds how many are in flight, no transaction is held while waiting
+        List<CompletableFuture<PingResult>> probes = servers.stream()
+                .map(server -> probeStrategy.probe(server.getIpAddress(), timeout)
+                        .handle((result, error) -> toPingResult(server, result, error)))
+                .collect(Collectors.toList());
+        List<PingResult> results = probes.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        List<Double> latencies = new ArrayList<>();
+        int up = 0;
+        int down = 0;
+        int errors = 0;
+        int changed = 0;
+        for (PingResult result : results) {
+            if (result.status == null) {
+                errors++;
+                continue;
+            }
+            if (result.status == Status.SERVER_UP) {
+                up++;
+            } else {
+                down++;
+            }
+            latencies.add(result.latencyNanos / 1_000_000.0);
+            if (statusWriteBuffer.submit(result.server, result.status)) {
+                changed++;
+            }
         }
+        // write the changes right away so the summary reflects the stored state
+        statusWriteBuffer.flush();
+
+        Collections.sort(latencies);
+        PingSummary summary = PingSummary.builder()
+                .total(servers.size())
+                .up(up)
+                .down(down)
+                .errors(errors)
+                .changed(changed)
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                .latencyP50Ms(percentile(latencies, 50))
+                .latencyP90Ms(percentile(latencies, 90))
+                .latencyP99Ms(percentile(latencies, 99))
+                .latencyMaxMs(latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1))
+                .build();
+        log.info("Pinged all servers: {}", summary);
+        return summary;
     }
 
     public Server create(Server server) {
@@ -64,51 +300,123 @@ public class ServerService {
         serverRepository.findByIpAddress(server.getIpAddress()).ifPresent(s -> {
             throw new BadRequestException("Server with ip address " + server.getIpAddress() + " already exists");
         });
-        return serverRepository.save(server);
+        Server created = serverRepository.save(server);
+        eventPublisher.publishEvent(new ServerChangedEvent(null, created));
+        return created;
     }
 
     public void saveAll(List<Server> servers) {
         log.info("Saving all servers");
-        List<String> ipAddresses = new ArrayList<>();
+        Set<String> ipAddresses = new HashSet<>();
 
-        // check if server with ip address already exists
+        // check if ip address is not unique
         servers.forEach(server -> {
-            serverRepository.findByIpAddress(server.getIpAddress()).ifPresent(s -> {
+            if (!ipAddresses.add(server.getIpAddress())) {
                 throw new BadRequestException("Server with ip address " + server.getIpAddress() + " already exists");
+            }
+        });
+
+        // check if server with ip address already exists, one query per chunk
+        List<String> candidates = new ArrayList<>(ipAddresses);
+        int chunkSize = properties.getBulk().getChunkSize();
+        for (int from = 0; from < candidates.size(); from += chunkSize) {
+            List<String> chunk = candidates.subList(from, Math.min(from + chunkSize, candidates.size()));
+            serverRepository.findExistingIpAddresses(chunk).stream().findFirst().ifPresent(ipAddress -> {
+                throw new BadRequestException("Server with ip address " + ipAddress + " already exists");
             });
+        }
 
-            // check if ip address is not unique
-            if (ipAddresses.contains(server.getIpAddress())) {
-                throw new BadRequestException("Server with ip address " + server.getIpAddress() + " already exists");
-            } else {
-                ipAddresses.add(server.getIpAddress());
+        serverRepository.saveAll(servers)
+                .forEach(server -> eventPublisher.publishEvent(new ServerChangedEvent(null, server)));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportReport importServers(List<Server> servers) {
+        log.info("Importing {} servers", servers.size());
+        int chunkSize = properties.getBulk().getChunkSize();
+        List<ImportResult> results = new ArrayList<>(servers.size());
+        Set<String> seen = new HashSet<>();
+
+        for (int from = 0; from < servers.size(); from += chunkSize) {
+            List<Server> chunk = servers.subList(from, Math.min(from + chunkSize, servers.size()));
+
+            // one lookup per chunk instead of one per row
+            Set<String> existing = new HashSet<>(serverRepository.findExistingIpAddresses(chunk.stream()
+                    .map(Server::getIpAddress)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList())));
+
+            List<Server> accepted = new ArrayList<>();
+            List<ImportResult> acceptedResults = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                Server server = chunk.get(i);
+                ImportResult result = ImportResult.builder()
+                        .index(from + i)
+                        .ipAddress(server.getIpAddress())
+                        .build();
+                results.add(result);
+
+                if (server.getIpAddress() == null || server.getIpAddress().isBlank()) {
+                    result.setReason("Ip address is required");
+                } else if (!seen.add(server.getIpAddress())) {
+                    result.setReason("Server with ip address " + server.getIpAddress() + " is duplicated in the import");
+                } else if (existing.contains(server.getIpAddress())) {
+                    result.setReason("Server with ip address " + server.getIpAddress() + " already exists");
+                } else {
+                    server.setId(null);
+                    accepted.add(server);
+                    acceptedResults.add(result);
+                }
             }
-        });
 
+            // insert the accepted rows with JDBC batching, each chunk in its own transaction
+            try {
+                serverRepository.saveAll(accepted);
+                for (int i = 0; i < accepted.size(); i++) {
+                    acceptedResults.get(i).setAccepted(true);
+                    acceptedResults.get(i).setId(accepted.get(i).getId());
+                    eventPublisher.publishEvent(new ServerChangedEvent(null, accepted.get(i)));
+                }
+            } catch (DataIntegrityViolationException e) {
+                log.error("Error importing servers {} to {}: {}", from, from + chunk.size() - 1, e.getMessage());
+                acceptedResults.forEach(result -> result.setReason("Conflicting write, server was not imported"));
+            }
+        }
 
-        serverRepository.saveAll(servers);
+        int accepted = (int) results.stream().filter(ImportResult::isAccepted).count();
+        log.info("Imported {} of {} servers", accepted, servers.size());
+        return ImportReport.builder()
+                .accepted(accepted)
+                .rejected(results.size() - accepted)
+                .results(results)
+                .build();
     }
 
     public Server update(Server server) {
         log.info("Updating server: {}", server);
+        if (server.getId() == null) {
+            throw new BadRequestException("Argument id is required");
+        }
 
-        // check if server with id exists
-        Server serverToUpdate = serverRepository.findById(server.getId()).orElseThrow(() -> {
-            throw new NotFoundException("Server not found");
-        });
-
-        // check if server with ip address already exists
-        serverRepository.findByIpAddressAndIdNot(server.getIpAddress(), server.getId()).ifPresent(s -> {
+        // one conditional statement, the version guards against lost updates and the unique constraint against duplicates
+        Optional<ServerUpdateRepository.UpdatedServer> updated;
+        try {
+            updated = serverUpdateRepository.update(server);
+        } catch (DuplicateKeyException e) {
             throw new BadRequestException("Server with ip address " + server.getIpAddress() + " already exists");
-        });
+        }
 
-        // Update the server object with the new values
-        serverToUpdate.setIpAddress(server.getIpAddress());
-        serverToUpdate.setName(server.getName());
-        serverToUpdate.setMemory(server.getMemory());
-        serverToUpdate.setType(server.getType());
-        serverToUpdate.setStatus(server.getStatus());
-        return serverRepository.save(serverToUpdate);
+        // check if server with id exists, or was changed since the client read it
+        if (updated.isEmpty()) {
+            Long version = serverUpdateRepository.findVersion(server.getId()).orElseThrow(() -> {
+                throw new NotFoundException("Server not found");
+            });
+            throw new BadRequestException("Server " + server.getId() + " was changed concurrently, version is "
+                    + version + " instead of " + server.getVersion());
+        }
+
+        eventPublisher.publishEvent(new ServerChangedEvent(updated.get().getBefore(), updated.get().getAfter()));
+        return updated.get().getAfter();
     }
 
 
@@ -118,15 +426,204 @@ public class ServerService {
             throw new NotFoundException("Server not found");
         });
         serverRepository.delete(server);
+        eventPublisher.publishEvent(new ServerChangedEvent(server, null));
         return true;
     }
 
+    public int updateServers(ServerSearchFilter filter, ServerPatch patch) {
+        log.info("Updating servers matching {} with {}", filter, patch);
+        if (patch.isEmpty()) {
+            throw new BadRequestException("Patch must set at least one field");
+        }
+        checkBulkFilter(filter);
+
+        // check if ip address is unique, it can only be set on a single server
+        if (patch.getIpAddress() != null) {
+            if (filter.getIds() != null && new HashSet<>(filter.getIds()).size() > 1) {
+                throw new BadRequestException("Ip address can only be set on a single server");
+            }
+            List<Long> targets = serverRepository.searchIds(filter, 0L, 2);
+            if (targets.size() > 1) {
+                throw new BadRequestException("Ip address can only be set on a single server");
+            }
+            if (!targets.isEmpty()) {
+                serverRepository.findByIpAddressAndIdNot(patch.getIpAddress(), targets.get(0)).ifPresent(s -> {
+                    throw new BadRequestException("Server with ip address " + patch.getIpAddress() + " already exists");
+                });
+            }
+        }
+
+        return forEachChunk(filter, (criteria, ids) -> serverRepository.update(criteria, ids, patch));
+    }
+
+    public int deleteServers(List<Long> ids, ServerSearchFilter filter) {
+        log.info("Deleting servers {} matching {}", ids, filter);
+        ServerSearchFilter criteria = filter == null ? new ServerSearchFilter() : filter;
+        if (ids != null) {
+            criteria = criteria.toBuilder().ids(ids).build();
+        }
+        checkBulkFilter(criteria);
+        return forEachChunk(criteria, serverRepository::delete);
+    }
+
+    @Transactional(readOnly = true)
     public Server findServerByIpAddress(String ipAddress) {
         log.info("Finding server by ip address: {}", ipAddress);
-        return serverRepository.findByIpAddress(ipAddress).orElseThrow(() -> {
-            throw new NotFoundException("Server with ip address " + ipAddress + " not found");
+        return serverCache.getByIpAddress(ipAddress, key -> {
+            readAfterWriteGuard.pinIfRecentlyWritten(List.of(), List.of(key));
+            return serverRepository.findByIpAddress(key).orElseThrow(() -> {
+                throw new NotFoundException("Server with ip address " + ipAddress + " not found");
+            });
         });
     }
 
+    private Map<Long, List<StatusHistory>> findLatestHistory(List<Server> servers, int limit) {
+        return statusHistoryRepository.findLatest(servers.stream().map(Server::getId).collect(Collectors.toSet()), limit)
+                .stream()
+                .collect(Collectors.groupingBy(StatusHistory::getServerId));
+    }
+
+    // an empty filter would touch every server, which is never what a bulk mutation means
+    private static void checkBulkFilter(ServerSearchFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            throw new BadRequestException("Filter must not be empty");
+        }
+        if (filter.getIds() != null && filter.getIds().isEmpty()) {
+            throw new BadRequestException("Argument ids must not be empty");
+        }
+    }
+
+    /**
+     * Runs a set based statement per chunk of matching ids, explicit ids are chunked as given and
+     * filters are walked in id order, then publishes the touched ids once.
+     */
+    private int forEachChunk(ServerSearchFilter filter, BiFunction<ServerSearchFilter, List<Long>, Integer> statement) {
+        int chunkSize = properties.getBulk().getChunkSize();
+        List<Long> touched = new ArrayList<>();
+        int affected = 0;
+        if (filter.getIds() != null) {
+            ServerSearchFilter rest = filter.toBuilder().ids(null).build();
+            List<Long> ids = new ArrayList<>(new TreeSet<>(filter.getIds()));
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                affected += statement.apply(rest, chunk);
+                touched.addAll(chunk);
+            }
+        } else {
+            long afterId = 0L;
+            List<Long> chunk;
+            do {
+                chunk = serverRepository.searchIds(filter, afterId, chunkSize);
+                if (!chunk.isEmpty()) {
+                    affected += statement.apply(filter, chunk);
+                    touched.addAll(chunk);
+                    afterId = chunk.get(chunk.size() - 1);
+                }
+            } while (chunk.size() == chunkSize);
+        }
+
+        if (affected > 0) {
+            eventPublisher.publishEvent(new ServersBulkChangedEvent(touched));
+        }
+        log.info("Bulk statement affected {} servers", affected);
+        return affected;
+    }
+
+    private static ServerConnection toConnection(List<Server> servers, int first) {
+        boolean hasNextPage = servers.size() > first;
+        List<ServerEdge> edges = servers.stream()
+                .limit(first)
+                .map(server -> new ServerEdge(encodeCursor(server.getId()), server))
+                .collect(Collectors.toList());
+
+        return ServerConnection.builder()
+                .edges(edges)
+                .pageInfo(PageInfo.builder()
+                        .hasNextPage(hasNextPage)
+                        .startCursor(edges.isEmpty() ? null : edges.get(0).getCursor())
+                        .endCursor(edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor())
+                        .build())
+                .build();
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("server:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("server:")) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return Long.parseLong(decoded.substring("server:".length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor " + cursor);
+        }
+    }
+
+    private static String encodeChangeCursor(long version, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("change:" + version + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decodeChangeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":");
+            if (parts.length != 3 || !parts[0].equals("change")) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor " + cursor);
+        }
+    }
+
+    private ProbeResult probe(String ipAddress, boolean force) {
+        // the probe times out by itself, the bound covers waiting for a permit and a probe thread
+        Duration bound = properties.getPing().getTimeout().plus(properties.getPing().getRateLimitMaxWait()).plus(PING_SLACK);
+        try {
+            // concurrent pings of the same host share one probe, a recent result is reused unless forced
+            return pingProbeStrategy.probe(ipAddress, properties.getPing().getTimeout(), force)
+                    .orTimeout(bound.toMillis(), TimeUnit.MILLISECONDS)
+                    .join();
+        } catch (CompletionException e) {
+            // check if the ping was turned away by the rate limiter
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new BadRequestException("Too many pings in progress, try again later");
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                throw new InternalServerException("Ping of " + ipAddress + " did not complete within " + bound.toMillis() + " ms");
+            }
+            throw new InternalServerException("Error pinging server : " + e.getCause().getMessage());
+        }
+    }
+
+    private static PingResult toPingResult(Server server, ProbeResult result, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            log.warn("Error pinging server {} : {}", server.getIpAddress(), cause.getMessage());
+            return new PingResult(server, null, 0);
+        }
+        return new PingResult(server, result.isReachable() ? Status.SERVER_UP : Status.SERVER_DOWN, result.getLatencyNanos());
+    }
+
+    // nearest-rank percentile of an already sorted list
+    private static double percentile(List<Double> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1);
+    }
+
+    @RequiredArgsConstructor
+    private static class PingResult {
+        private final Server server;
+        private final Status status;
+        private final long latencyNanos;
+    }
+
 
 }
@@ -0,0 +1,81 @@
+package dev.yogi.server.manager.service;
+
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.model.ServerStatusChange;
+import dev.yogi.server.manager.model.ServerStatusFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fans committed status changes out to GraphQL subscribers. Each subscriber gets its own
+ * filter, coalescing window and bounded buffer so a slow client never holds back the others.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ServerStatusPublisher {
+
+    private final ServerManagerProperties properties;
+
+    private final Sinks.Many<ServerStatusChange> sink = Sinks.many().multicast().directBestEffort();
+
+    public Flux<ServerStatusChange> subscribe(ServerStatusFilter filter) {
+        ServerManagerProperties.Subscription subscription = properties.getSubscription();
+        return sink.asFlux()
+                .filter(change -> filter == null || filter.matches(change))
+                .bufferTimeout(subscription.getBufferSize(), subscription.getCoalesceWindow())
+                .concatMapIterable(ServerStatusPublisher::coalesce)
+                // bufferTimeout fails without demand, the bounded buffer below always requests from it
+                .onBackpressureBuffer(subscription.getBufferSize(),
+                        change -> log.warn("Dropping status change of server {} for slow subscriber", change.getServer().getId()),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    public boolean hasSubscribers() {
+        return sink.currentSubscriberCount() > 0;
+    }
+
+    public synchronized void publish(ServerStatusChange change) {
+        sink.tryEmitNext(change);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onServerChanged(ServerChangedEvent event) {
+        if (event.getBefore() == null || event.getAfter() == null || !event.isStatusChanged()) {
+            return;
+        }
+        publish(ServerStatusChange.builder()
+                .server(event.getAfter())
+                .previousStatus(event.getBefore().getStatus())
+                .status(event.getAfter().getStatus())
+                .changedAt(OffsetDateTime.now())
+                .build());
+    }
+
+    // keep only the net change per server, a server that flipped back within the window is not delivered
+    private static Iterable<ServerStatusChange> coalesce(List<ServerStatusChange> changes) {
+        Map<Long, ServerStatusChange> latest = new LinkedHashMap<>();
+        for (ServerStatusChange change : changes) {
+            latest.merge(change.getServer().getId(), change, (first, last) -> ServerStatusChange.builder()
+                    .server(last.getServer())
+                    .previousStatus(first.getPreviousStatus())
+                    .status(last.getStatus())
+                    .changedAt(last.getChangedAt())
+                    .build());
+        }
+        latest.values().removeIf(change -> change.getPreviousStatus() == change.getStatus());
+        return latest.values();
+    }
+}
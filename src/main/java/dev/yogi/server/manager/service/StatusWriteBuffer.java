@@ -0,0 +1,93 @@
+package dev.yogi.server.manager.service;
+
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.repository.ServerStatusRepository;
+import dev.yogi.server.manager.repository.ServerUpdateRepository.UpdatedServer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects status changes found by probes and writes them in batches. Repeated probes of a server
+ * before the next flush collapse into one write, and the write only touches rows whose stored status
+ * differs, so a probe that confirms the current status writes nothing. Buffered changes are flushed
+ * every {@code ping.status-flush-interval} and on shutdown.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatusWriteBuffer implements SchedulingConfigurer {
+
+    private final ServerStatusRepository serverStatusRepository;
+    private final ServerManagerProperties properties;
+    private final TransactionOperations transactionOperations;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Status> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::flush, properties.getPing().getStatusFlushInterval().toMillis());
+    }
+
+    /**
+     * Buffers the probed status of the server, returns whether it differs from the server's status.
+     * The server may be older than the stored row, the flush compares against the stored status.
+     */
+    public boolean submit(Server server, Status status) {
+        pending.put(server.getId(), status);
+        return status != server.getStatus();
+    }
+
+    /**
+     * Writes every buffered change in batches within one transaction, returns the number of rows changed.
+     */
+    public synchronized int flush() {
+        Map<Long, Status> batch = new LinkedHashMap<>(pending);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int batchSize = properties.getPing().getBatchSize();
+        List<UpdatedServer> updated = transactionOperations.execute(tx -> {
+            List<UpdatedServer> rows = new ArrayList<>();
+            Map<Long, Status> statuses = new LinkedHashMap<>();
+            for (Map.Entry<Long, Status> entry : batch.entrySet()) {
+                statuses.put(entry.getKey(), entry.getValue());
+                if (statuses.size() == batchSize) {
+                    rows.addAll(serverStatusRepository.updateStatuses(statuses));
+                    statuses.clear();
+                }
+            }
+            rows.addAll(serverStatusRepository.updateStatuses(statuses));
+
+            // listeners invalidate caches and notify subscribers once the transaction commits
+            rows.forEach(row -> eventPublisher.publishEvent(new ServerChangedEvent(row.getBefore(), row.getAfter())));
+            return rows;
+        });
+
+        // keep changes submitted while writing for the next flush
+        batch.forEach(pending::remove);
+        int changed = updated == null ? 0 : updated.size();
+        log.info("Flushed {} probed statuses, {} changed", batch.size(), changed);
+        return changed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
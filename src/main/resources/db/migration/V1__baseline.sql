@@ -0,0 +1,188 @@
+-- Baseline of the schema, before the migrations existed it was created by Hibernate (ddl-auto).
+-- Databases created that way are baselined at this version by spring.flyway.baseline-on-migrate, V6 upgrades them.
+
+CREATE SEQUENCE server_seq START WITH 1 INCREMENT BY 50;
+
+-- the unique constraint keeps the name Hibernate generated so baselined databases match
+CREATE TABLE server
+(
+    id           BIGINT NOT NULL PRIMARY KEY,
+    ip_address   VARCHAR(255) CONSTRAINT uk_96tx503up4941ibvsnhh8itdi UNIQUE,
+    name         VARCHAR(255),
+    memory_bytes BIGINT,
+    type         VARCHAR(255),
+    status       INTEGER
+);
+
+CREATE INDEX idx_server_status_type_memory ON server (status, type, memory_bytes);
+
+CREATE INDEX idx_server_memory_bytes ON server (memory_bytes);
+
+-- prefix searches on name, the pattern operator class lets LIKE 'abc%' use the index under any collation
+CREATE INDEX idx_server_name_prefix ON server (name varchar_pattern_ops);
+
+CREATE TABLE server_status_history
+(
+    server_id  BIGINT           NOT NULL,
+    status     VARCHAR(16)      NOT NULL,
+    latency_ms DOUBLE PRECISION,
+    checked_at TIMESTAMPTZ      NOT NULL
+) PARTITION BY RANGE (checked_at);
+
+CREATE INDEX idx_server_status_history_server_checked_at
+    ON server_status_history (server_id, checked_at DESC);
+
+-- one partition per month, named server_status_history_YYYYMM
+CREATE OR REPLACE FUNCTION create_server_status_history_partitions(months_ahead INT) RETURNS VOID AS
+$$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..months_ahead
+        LOOP
+            month_start := (date_trunc('month', now()) + make_interval(months => i))::DATE;
+            EXECUTE format('CREATE TABLE %I PARTITION OF server_status_history FOR VALUES FROM (%L) TO (%L)',
+                           'server_status_history_' || to_char(month_start, 'YYYYMM'),
+                           month_start,
+                           (month_start + INTERVAL '1 month')::DATE);
+        END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION drop_server_status_history_partitions(keep_months INT) RETURNS VOID AS
+$$
+DECLARE
+    oldest    TEXT := 'server_status_history_' ||
+                      to_char(date_trunc('month', now()) - make_interval(months => keep_months), 'YYYYMM');
+    part      RECORD;
+BEGIN
+    FOR part IN
+        SELECT child.relname
+        FROM pg_inherits
+                 JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                 JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        WHERE parent.relname = 'server_status_history'
+        LOOP
+            IF part.relname < oldest THEN
+                EXECUTE format('DROP TABLE IF EXISTS %I', part.relname);
+            END IF;
+        END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+SELECT create_server_status_history_partitions(1);
+
+-- fleet statistics per (status, type), maintained by statement level triggers on server so every write,
+-- including bulk status updates, adjusts the summary inside its own transaction
+CREATE TABLE fleet_summary
+(
+    status       INTEGER,
+    type         VARCHAR(255),
+    server_count BIGINT NOT NULL DEFAULT 0,
+    memory_sum   BIGINT NOT NULL DEFAULT 0,
+    memory_min   BIGINT,
+    memory_max   BIGINT
+);
+
+CREATE UNIQUE INDEX idx_fleet_summary_group
+    ON fleet_summary ((COALESCE(status, -1)), (COALESCE(type, '')));
+
+CREATE OR REPLACE FUNCTION add_to_fleet_summary(group_status INTEGER, group_type VARCHAR, added_count BIGINT,
+                                                added_sum BIGINT, added_min BIGINT, added_max BIGINT) RETURNS VOID AS
+$$
+BEGIN
+    INSERT INTO fleet_summary AS f (status, type, server_count, memory_sum, memory_min, memory_max)
+    VALUES (group_status, group_type, added_count, added_sum, added_min, added_max)
+    ON CONFLICT ((COALESCE(status, -1)), (COALESCE(type, '')))
+        DO UPDATE SET server_count = f.server_count + EXCLUDED.server_count,
+                      memory_sum   = f.memory_sum + EXCLUDED.memory_sum,
+                      memory_min   = LEAST(f.memory_min, EXCLUDED.memory_min),
+                      memory_max   = GREATEST(f.memory_max, EXCLUDED.memory_max);
+END
+$$ LANGUAGE plpgsql;
+
+-- counts and sums are adjusted in place, min and max are only recomputed when a removed row held one of them,
+-- the dynamic query keeps plain equality predicates so it is two probes of idx_server_status_type_memory
+CREATE OR REPLACE FUNCTION remove_from_fleet_summary(group_status INTEGER, group_type VARCHAR, removed_count BIGINT,
+                                                     removed_sum BIGINT, removed_min BIGINT, removed_max BIGINT) RETURNS VOID AS
+$$
+DECLARE
+    extreme   BOOLEAN;
+    predicate TEXT := concat_ws(' AND ',
+                                CASE WHEN group_status IS NULL THEN 'status IS NULL' ELSE format('status = %s', group_status) END,
+                                CASE WHEN group_type IS NULL THEN 'type IS NULL' ELSE format('type = %L', group_type) END);
+BEGIN
+    UPDATE fleet_summary
+    SET server_count = server_count - removed_count,
+        memory_sum   = memory_sum - removed_sum
+    WHERE status IS NOT DISTINCT FROM group_status
+      AND type IS NOT DISTINCT FROM group_type
+    RETURNING removed_min <= memory_min OR removed_max >= memory_max INTO extreme;
+
+    IF extreme THEN
+        EXECUTE format('UPDATE fleet_summary SET memory_min = (SELECT min(memory_bytes) FROM server WHERE %1$s), '
+                           || 'memory_max = (SELECT max(memory_bytes) FROM server WHERE %1$s) '
+                           || 'WHERE status IS NOT DISTINCT FROM $1 AND type IS NOT DISTINCT FROM $2', predicate)
+            USING group_status, group_type;
+    END IF;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION apply_fleet_summary_delta() RETURNS TRIGGER AS
+$$
+DECLARE
+    delta RECORD;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        FOR delta IN SELECT status, type, count(*) AS server_count, COALESCE(sum(memory_bytes), 0)::BIGINT AS memory_sum,
+                            min(memory_bytes) AS memory_min, max(memory_bytes) AS memory_max
+                     FROM new_rows
+                     GROUP BY status, type
+            LOOP
+                PERFORM add_to_fleet_summary(delta.status, delta.type, delta.server_count, delta.memory_sum, delta.memory_min, delta.memory_max);
+            END LOOP;
+    ELSIF TG_OP = 'DELETE' THEN
+        FOR delta IN SELECT status, type, count(*) AS server_count, COALESCE(sum(memory_bytes), 0)::BIGINT AS memory_sum,
+                            min(memory_bytes) AS memory_min, max(memory_bytes) AS memory_max
+                     FROM old_rows
+                     GROUP BY status, type
+            LOOP
+                PERFORM remove_from_fleet_summary(delta.status, delta.type, delta.server_count, delta.memory_sum, delta.memory_min, delta.memory_max);
+            END LOOP;
+    ELSE
+        -- only rows that moved between groups or changed memory affect the summary
+        FOR delta IN SELECT o.status, o.type, count(*) AS server_count, COALESCE(sum(o.memory_bytes), 0)::BIGINT AS memory_sum,
+                            min(o.memory_bytes) AS memory_min, max(o.memory_bytes) AS memory_max
+                     FROM old_rows o
+                              JOIN new_rows n ON n.id = o.id
+                     WHERE (o.status, o.type, o.memory_bytes) IS DISTINCT FROM (n.status, n.type, n.memory_bytes)
+                     GROUP BY o.status, o.type
+            LOOP
+                PERFORM remove_from_fleet_summary(delta.status, delta.type, delta.server_count, delta.memory_sum, delta.memory_min, delta.memory_max);
+            END LOOP;
+        FOR delta IN SELECT n.status, n.type, count(*) AS server_count, COALESCE(sum(n.memory_bytes), 0)::BIGINT AS memory_sum,
+                            min(n.memory_bytes) AS memory_min, max(n.memory_bytes) AS memory_max
+                     FROM old_rows o
+                              JOIN new_rows n ON n.id = o.id
+                     WHERE (o.status, o.type, o.memory_bytes) IS DISTINCT FROM (n.status, n.type, n.memory_bytes)
+                     GROUP BY n.status, n.type
+            LOOP
+                PERFORM add_to_fleet_summary(delta.status, delta.type, delta.server_count, delta.memory_sum, delta.memory_min, delta.memory_max);
+            END LOOP;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- transition tables need one trigger per event
+CREATE TRIGGER server_fleet_summary_insert
+    AFTER INSERT ON server REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION apply_fleet_summary_delta();
+
+CREATE TRIGGER server_fleet_summary_update
+    AFTER UPDATE ON server REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION apply_fleet_summary_delta();
+
+CREATE TRIGGER server_fleet_summary_delete
+    AFTER DELETE ON server REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION apply_fleet_summary_delta();
@@ -0,0 +1,51 @@
+-- Change feed for inventory sync: every server row carries the id of the transaction that last wrote it,
+-- deleted servers leave a tombstone. Transaction ids only become visible once every older transaction
+-- finished, so readers stop below the xmin of their snapshot and a late commit never lands behind a cursor.
+
+-- existing rows start at version 0 without rewriting the table, new rows take the inserting transaction
+ALTER TABLE server ADD COLUMN change_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE server ALTER COLUMN change_version SET DEFAULT txid_current();
+
+CREATE INDEX idx_server_change_version ON server (change_version, id);
+
+CREATE TABLE server_tombstone
+(
+    id             BIGINT      NOT NULL PRIMARY KEY,
+    ip_address     VARCHAR(255),
+    change_version BIGINT      NOT NULL,
+    deleted_at     TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_server_tombstone_change_version ON server_tombstone (change_version, id);
+
+CREATE OR REPLACE FUNCTION stamp_server_change_version() RETURNS TRIGGER AS
+$$
+BEGIN
+    NEW.change_version := txid_current();
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION record_server_tombstones() RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO server_tombstone (id, ip_address, change_version, deleted_at)
+    SELECT id, ip_address, txid_current(), now()
+    FROM old_rows
+    ON CONFLICT (id) DO UPDATE SET ip_address     = EXCLUDED.ip_address,
+                                   change_version = EXCLUDED.change_version,
+                                   deleted_at     = EXCLUDED.deleted_at;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- covers entity updates, bulk updates and the batched status writes alike, updates that change nothing keep their version
+CREATE TRIGGER server_change_version_update
+    BEFORE UPDATE ON server
+    FOR EACH ROW
+    WHEN (OLD IS DISTINCT FROM NEW)
+EXECUTE FUNCTION stamp_server_change_version();
+
+CREATE TRIGGER server_tombstone_delete
+    AFTER DELETE ON server REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION record_server_tombstones();
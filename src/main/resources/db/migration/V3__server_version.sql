@@ -0,0 +1,2 @@
+-- optimistic locking of server updates, existing rows start at version 0 without rewriting the table
+ALTER TABLE server ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
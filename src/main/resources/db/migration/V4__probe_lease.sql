@@ -0,0 +1,7 @@
+-- replicas running health checks, each renews its lease and probes the servers the hash ring assigns to it
+CREATE TABLE probe_lease
+(
+    node_id    VARCHAR(64) NOT NULL PRIMARY KEY,
+    renewed_at TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
@@ -0,0 +1,17 @@
+-- V1 creates this month's and next month's partitions, the health check creates them again on startup
+-- and every few hours, existing partitions have to be skipped
+CREATE OR REPLACE FUNCTION create_server_status_history_partitions(months_ahead INT) RETURNS VOID AS
+$$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..months_ahead
+        LOOP
+            month_start := (date_trunc('month', now()) + make_interval(months => i))::DATE;
+            EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF server_status_history FOR VALUES FROM (%L) TO (%L)',
+                           'server_status_history_' || to_char(month_start, 'YYYYMM'),
+                           month_start,
+                           (month_start + INTERVAL '1 month')::DATE);
+        END LOOP;
+END
+$$ LANGUAGE plpgsql;
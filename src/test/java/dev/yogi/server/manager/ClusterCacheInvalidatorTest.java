@@ -0,0 +1,141 @@
+package dev.yogi.server.manager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.datasource.ReadAfterWriteGuard;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerStatusChange;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.repository.ServerRepository;
+import dev.yogi.server.manager.service.ClusterCacheInvalidator;
+import dev.yogi.server.manager.service.ServerCache;
+import dev.yogi.server.manager.service.ServerStatusPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterCacheInvalidatorTest {
+
+    private static final String PEER = "{\"nodeId\":\"peer\",\"id\":1,\"ipAddresses\":[\"10.0.0.1\"]";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ServerStatusPublisher serverStatusPublisher;
+
+    @Mock
+    private ServerRepository serverRepository;
+
+    private final ServerManagerProperties properties = new ServerManagerProperties();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ServerCache serverCache;
+    private ReadAfterWriteGuard readAfterWriteGuard;
+    private ClusterCacheInvalidator clusterCacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        serverCache = new ServerCache(properties);
+        readAfterWriteGuard = new ReadAfterWriteGuard(properties);
+        clusterCacheInvalidator = new ClusterCacheInvalidator(jdbcTemplate, new DataSourceProperties(), serverCache,
+                serverStatusPublisher, serverRepository, properties, objectMapper, readAfterWriteGuard);
+        serverCache.getById(1L, id -> server(1L, Status.SERVER_UP));
+        serverCache.getByIpAddress("10.0.0.1", ipAddress -> server(1L, Status.SERVER_UP));
+    }
+
+    @Test
+    void testOnServerChanged_NotifiesStatusFlip() throws Exception {
+        Server before = server(1L, Status.SERVER_UP);
+        Server after = server(1L, Status.SERVER_DOWN);
+        after.setIpAddress("10.0.0.2");
+
+        clusterCacheInvalidator.onServerChanged(new ServerChangedEvent(before, after));
+
+        JsonNode invalidation = objectMapper.readTree(notifiedPayload());
+        assertEquals(1L, invalidation.get("id").asLong());
+        assertEquals(2, invalidation.get("ipAddresses").size());
+        assertEquals("SERVER_UP", invalidation.get("previousStatus").asText());
+        assertEquals("SERVER_DOWN", invalidation.get("status").asText());
+        assertFalse(invalidation.get("all").asBoolean());
+    }
+
+    @Test
+    void testHandle_OwnInvalidationIsIgnored() {
+        clusterCacheInvalidator.onServerChanged(new ServerChangedEvent(server(1L, Status.SERVER_UP), server(1L, Status.SERVER_DOWN)));
+
+        clusterCacheInvalidator.handle(notifiedPayload());
+
+        // the entries are still cached, the loaders are not called
+        assertEquals(Status.SERVER_UP, serverCache.getById(1L, id -> fail("evicted")).getStatus());
+        assertEquals(Status.SERVER_UP, serverCache.getByIpAddress("10.0.0.1", ipAddress -> fail("evicted")).getStatus());
+        assertFalse(readAfterWriteGuard.isRecentlyWritten(List.of(1L), List.of("10.0.0.1")));
+        verifyNoInteractions(serverStatusPublisher, serverRepository);
+    }
+
+    @Test
+    void testHandle_PeerChangeEvictsByIdAndIpAddress() {
+        clusterCacheInvalidator.handle(PEER + "}");
+
+        assertEquals(Status.SERVER_DOWN, serverCache.getById(1L, id -> server(1L, Status.SERVER_DOWN)).getStatus());
+        assertEquals(Status.SERVER_DOWN, serverCache.getByIpAddress("10.0.0.1", ipAddress -> server(1L, Status.SERVER_DOWN)).getStatus());
+        assertTrue(readAfterWriteGuard.isRecentlyWritten(List.of(1L), List.of()));
+        assertFalse(readAfterWriteGuard.isRecentlyWritten(List.of(2L), List.of()));
+        // a change without a status flip is not republished
+        verifyNoInteractions(serverStatusPublisher, serverRepository);
+    }
+
+    @Test
+    void testHandle_PeerStatusFlipIsRepublished() {
+        when(serverStatusPublisher.hasSubscribers()).thenReturn(true);
+        when(serverRepository.findById(1L)).thenReturn(Optional.of(server(1L, Status.SERVER_DOWN)));
+
+        clusterCacheInvalidator.handle(PEER + ",\"previousStatus\":\"SERVER_UP\",\"status\":\"SERVER_DOWN\"}");
+
+        ArgumentCaptor<ServerStatusChange> change = ArgumentCaptor.forClass(ServerStatusChange.class);
+        verify(serverStatusPublisher).publish(change.capture());
+        assertEquals(1L, change.getValue().getServer().getId());
+        assertEquals(Status.SERVER_UP, change.getValue().getPreviousStatus());
+        assertEquals(Status.SERVER_DOWN, change.getValue().getStatus());
+    }
+
+    @Test
+    void testHandle_PeerBulkChangeInvalidatesAll() {
+        serverCache.getById(2L, id -> server(2L, Status.SERVER_UP));
+
+        clusterCacheInvalidator.handle("{\"nodeId\":\"peer\",\"ipAddresses\":[],\"all\":true}");
+
+        assertEquals(Status.SERVER_DOWN, serverCache.getById(1L, id -> server(1L, Status.SERVER_DOWN)).getStatus());
+        assertEquals(Status.SERVER_DOWN, serverCache.getById(2L, id -> server(2L, Status.SERVER_DOWN)).getStatus());
+        assertTrue(readAfterWriteGuard.isRecentlyWritten(List.of(3L), List.of()));
+        verifyNoInteractions(serverStatusPublisher, serverRepository);
+    }
+
+    private String notifiedPayload() {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).queryForList(eq("SELECT pg_notify(?, ?)"), eq(properties.getCache().getClusterInvalidation().getChannel()), payload.capture());
+        return (String) payload.getValue();
+    }
+
+    private static Server server(Long id, Status status) {
+        Server server = new Server();
+        server.setId(id);
+        server.setIpAddress("10.0.0." + id);
+        server.setStatus(status);
+        return server;
+    }
+}
@@ -0,0 +1,69 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.probe.CoalescingProbeStrategy;
+import dev.yogi.server.manager.probe.ProbeResult;
+import dev.yogi.server.manager.probe.RateLimitedProbeStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingProbeStrategyTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+    @Test
+    void testProbe_ConcurrentPingsShareOneProbe() throws Exception {
+        AtomicInteger probes = new AtomicInteger();
+        CompletableFuture<ProbeResult> pending = new CompletableFuture<>();
+        CoalescingProbeStrategy strategy = new CoalescingProbeStrategy((ipAddress, timeout) -> {
+            probes.incrementAndGet();
+            return pending;
+        }, Duration.ofSeconds(2), new SimpleMeterRegistry());
+
+        List<CompletableFuture<ProbeResult>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(strategy.probe("10.0.0.1", TIMEOUT, i % 2 == 0));
+        }
+        pending.complete(new ProbeResult(true, 1_000_000));
+
+        assertEquals(1, probes.get());
+        for (CompletableFuture<ProbeResult> result : results) {
+            assertTrue(result.get().isReachable());
+        }
+    }
+
+    @Test
+    void testProbe_FailureIsNotRemembered() {
+        AtomicInteger probes = new AtomicInteger();
+        CoalescingProbeStrategy strategy = new CoalescingProbeStrategy((ipAddress, timeout) -> {
+            probes.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("Probe failed"));
+        }, Duration.ofSeconds(2), new SimpleMeterRegistry());
+
+        assertThrows(ExecutionException.class, () -> strategy.probe("10.0.0.1", TIMEOUT).get());
+        assertThrows(ExecutionException.class, () -> strategy.probe("10.0.0.1", TIMEOUT).get());
+        assertEquals(2, probes.get());
+    }
+
+    @Test
+    void testProbe_RateLimitExceeded() {
+        RateLimitedProbeStrategy strategy = new RateLimitedProbeStrategy(
+                (ipAddress, timeout) -> CompletableFuture.completedFuture(new ProbeResult(true, 1_000_000)),
+                1, 2, Duration.ZERO);
+
+        // the burst is served immediately, the next probe would have to wait a second
+        assertTrue(strategy.probe("10.0.0.1", TIMEOUT).join().isReachable());
+        assertTrue(strategy.probe("10.0.0.2", TIMEOUT).join().isReachable());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> strategy.probe("10.0.0.3", TIMEOUT).get());
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+}
@@ -0,0 +1,55 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.service.ConsistentHashRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    void testOwner_SameForEveryReplica() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        ConsistentHashRing other = new ConsistentHashRing(List.of("c", "a", "b"), 128);
+
+        for (long key = 1; key <= KEYS; key++) {
+            assertEquals(ring.owner(key), other.owner(key));
+        }
+        assertNull(new ConsistentHashRing(List.of(), 128).owner(1));
+    }
+
+    @Test
+    void testOwner_SpreadsKeysEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long key = 1; key <= KEYS; key++) {
+            counts.merge(ring.owner(key), 1, Integer::sum);
+        }
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 / 5, counts.toString()));
+    }
+
+    @Test
+    void testOwner_JoiningNodeOnlyTakesKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+
+        int moved = 0;
+        for (long key = 1; key <= KEYS; key++) {
+            String owner = after.owner(key);
+            if (!owner.equals(before.owner(key))) {
+                // keys only move to the new node, the others keep theirs
+                assertEquals("d", owner);
+                moved++;
+            }
+        }
+        assertTrue(Math.abs(moved - KEYS / 4) < KEYS / 4 / 5, String.valueOf(moved));
+    }
+}
@@ -0,0 +1,80 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.graphql.DocumentCache;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentCacheTest {
+
+    private static final String QUERY = "{ status }";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GraphQL graphQL;
+
+    @BeforeEach
+    void setUp() {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("status", env -> "SERVER_UP"))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(
+                new SchemaParser().parse("type Query { status: String }"), wiring);
+        DocumentCache documentCache = new DocumentCache(10, 10);
+        documentCache.bindTo(meterRegistry);
+        graphQL = GraphQL.newGraphQL(schema)
+                .preparsedDocumentProvider(documentCache)
+                .build();
+    }
+
+    @Test
+    void testGetDocument_RepeatedQueryIsParsedOnce() {
+        graphQL.execute(QUERY);
+        ExecutionResult result = graphQL.execute(QUERY);
+
+        assertEquals(Map.of("status", "SERVER_UP"), result.getData());
+        assertEquals(1, hits("graphql.documents"));
+    }
+
+    @Test
+    void testGetDocument_PersistedQuery() throws Exception {
+        Map<String, Object> extensions = Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", sha256(QUERY)));
+
+        // the hash alone is unknown until the client sends the text once
+        ExecutionResult notFound = graphQL.execute(persisted(PersistedQuerySupport.PERSISTED_QUERY_MARKER, extensions));
+        assertEquals("PersistedQueryNotFound", notFound.getErrors().get(0).getMessage());
+
+        graphQL.execute(persisted(QUERY, extensions));
+        ExecutionResult result = graphQL.execute(persisted(PersistedQuerySupport.PERSISTED_QUERY_MARKER, extensions));
+
+        assertEquals(Map.of("status", "SERVER_UP"), result.getData());
+        assertEquals(1, hits("graphql.persisted-queries"));
+    }
+
+    private static ExecutionInput persisted(String query, Map<String, Object> extensions) {
+        return ExecutionInput.newExecutionInput(query).extensions(extensions).build();
+    }
+
+    private double hits(String cache) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", "hit").functionCounter().count();
+    }
+
+    private static String sha256(String text) throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        return String.format("%064x", new BigInteger(1, hash));
+    }
+}
@@ -0,0 +1,83 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.datasource.FairDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FairDataSourceTest {
+
+    @Mock(extraInterfaces = AutoCloseable.class)
+    private DataSource pool;
+
+    @Mock
+    private Connection connection;
+
+    private FairDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(pool.getConnection()).thenReturn(connection);
+        dataSource = new FairDataSource(pool, 1, Duration.ofMillis(100));
+    }
+
+    @Test
+    void testGetConnection_TimesOutWhenAllAreInUse() throws Exception {
+        Connection first = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        verify(pool, times(1)).getConnection();
+
+        first.close();
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    void testGetConnection_WaiterGetsClosedConnection() throws Exception {
+        dataSource = new FairDataSource(pool, 1, Duration.ofSeconds(1));
+        Connection first = dataSource.getConnection();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // closing twice hands back a single permit
+        first.close();
+        first.close();
+        Connection second = waiter.get(1, TimeUnit.SECONDS);
+        verify(connection, times(2)).close();
+        assertEquals(0, dataSource.getWaiting());
+
+        second.close();
+        assertNotNull(dataSource.getConnection());
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+    }
+
+    @Test
+    void testClose_ClosesPool() throws Exception {
+        dataSource.getConnection().close();
+
+        dataSource.close();
+        verify((AutoCloseable) pool).close();
+    }
+}
@@ -0,0 +1,154 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.model.StatusHistory;
+import dev.yogi.server.manager.probe.ProbeResult;
+import dev.yogi.server.manager.probe.ProbeStrategy;
+import dev.yogi.server.manager.repository.ServerRepository;
+import dev.yogi.server.manager.repository.StatusHistoryRepository;
+import dev.yogi.server.manager.service.HealthCheckScheduler;
+import dev.yogi.server.manager.service.ProbeShardCoordinator;
+import dev.yogi.server.manager.service.StatusWriteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HealthCheckSchedulerTest {
+
+    @Mock
+    private ServerRepository serverRepository;
+
+    @Mock
+    private StatusHistoryRepository statusHistoryRepository;
+
+    @Mock
+    private ProbeStrategy probeStrategy;
+
+    @Mock
+    private StatusWriteBuffer statusWriteBuffer;
+
+    @Mock
+    private ProbeShardCoordinator probeShardCoordinator;
+
+    private final ExecutorService pingExecutor = Executors.newSingleThreadExecutor();
+    private HealthCheckScheduler healthCheckScheduler;
+
+    @BeforeEach
+    void setUp() {
+        ServerManagerProperties properties = new ServerManagerProperties();
+        properties.getHealthCheck().setInterval(Duration.ofMillis(50));
+        properties.getHealthCheck().setJitter(Duration.ZERO);
+        healthCheckScheduler = new HealthCheckScheduler(serverRepository, statusHistoryRepository, properties,
+                probeStrategy, pingExecutor, statusWriteBuffer, probeShardCoordinator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        healthCheckScheduler.shutdown();
+        pingExecutor.shutdownNow();
+    }
+
+    @Test
+    void testDelay_StableSlotsSpreadAcrossInterval() {
+        long intervalMs = 60_000;
+        Set<Long> delays = new HashSet<>();
+        for (long id = 1; id <= 100; id++) {
+            long delay = HealthCheckScheduler.delay(id, 0, intervalMs, 0);
+            assertEquals(delay, HealthCheckScheduler.delay(id, 0, intervalMs, 0));
+            // a sweep starting later in the interval reaches the same wall clock slot
+            assertEquals(Math.floorMod(delay - 1_000, intervalMs), HealthCheckScheduler.delay(id, 1_000, intervalMs, 0));
+            delays.add(delay);
+        }
+        assertTrue(delays.size() > 95);
+    }
+
+    @Test
+    void testDelay_JitterStaysInsideInterval() {
+        for (long id = 1; id <= 1_000; id++) {
+            long delay = HealthCheckScheduler.delay(id, 0, 100, 1_000);
+            assertTrue(delay >= 0 && delay < 100, "delay " + delay + " outside the interval");
+        }
+    }
+
+    @Test
+    void testSweep_InFlightHostIsSkipped() throws Exception {
+        CompletableFuture<ProbeResult> probe = new CompletableFuture<>();
+        when(serverRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(List.of(server(1L, Status.SERVER_DOWN))));
+        when(probeShardCoordinator.owns(any())).thenReturn(true);
+        when(probeStrategy.probe(eq("10.0.0.1"), any())).thenReturn(probe, new CompletableFuture<>());
+
+        healthCheckScheduler.sweep();
+        verify(probeStrategy, timeout(1_000)).probe(eq("10.0.0.1"), any());
+        // the first probe is still running, the next sweep leaves the host alone
+        healthCheckScheduler.sweep();
+        verify(probeShardCoordinator, timeout(1_000).times(4)).owns(any());
+        verify(probeStrategy, times(1)).probe(eq("10.0.0.1"), any());
+
+        probe.complete(new ProbeResult(true, 1_000_000));
+        // the result is handled on the ping executor, the host is free once it ran
+        pingExecutor.submit(() -> { }).get(1, TimeUnit.SECONDS);
+        verify(statusWriteBuffer).submit(any(), eq(Status.SERVER_UP));
+        healthCheckScheduler.sweep();
+        verify(probeStrategy, timeout(1_000).times(2)).probe(eq("10.0.0.1"), any());
+    }
+
+    @Test
+    void testSweep_ServerOfOtherReplicaIsSkipped() {
+        when(serverRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(List.of(server(1L, Status.SERVER_UP))));
+        when(probeShardCoordinator.owns(any())).thenReturn(false);
+
+        healthCheckScheduler.sweep();
+
+        verifyNoInteractions(probeStrategy);
+    }
+
+    @Test
+    void testFlushHistory_DrainsQueue() {
+        when(serverRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(List.of(server(1L, Status.SERVER_UP), server(2L, Status.SERVER_UP))));
+        when(probeShardCoordinator.owns(any())).thenReturn(true);
+        when(probeStrategy.probe(any(), any())).thenReturn(CompletableFuture.completedFuture(new ProbeResult(false, 0)));
+
+        healthCheckScheduler.sweep();
+        verify(statusWriteBuffer, timeout(1_000).times(2)).submit(any(), eq(Status.SERVER_DOWN));
+        healthCheckScheduler.flushHistory();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StatusHistory>> batch = ArgumentCaptor.forClass(List.class);
+        verify(statusHistoryRepository).appendAll(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertTrue(batch.getValue().stream().allMatch(history -> history.getStatus() == Status.SERVER_DOWN));
+
+        // nothing is left for the next flush
+        healthCheckScheduler.flushHistory();
+        verifyNoMoreInteractions(statusHistoryRepository);
+    }
+
+    private static Server server(Long id, Status status) {
+        Server server = new Server();
+        server.setId(id);
+        server.setIpAddress("10.0.0." + id);
+        server.setStatus(status);
+        return server;
+    }
+}
@@ -0,0 +1,42 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.exception.BadRequestException;
+import dev.yogi.server.manager.model.MemorySize;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemorySizeTest {
+
+    @Test
+    void testParse() {
+        assertEquals(32L << 30, MemorySize.parse("32 GB"));
+        assertEquals(32L << 30, MemorySize.parse("32gb"));
+        assertEquals(1536L << 20, MemorySize.parse("1.5 GiB"));
+        assertEquals(512, MemorySize.parse("512"));
+        assertThrows(BadRequestException.class, () -> MemorySize.parse("lots"));
+    }
+
+    @Test
+    void testParse_Overflow() {
+        assertEquals(Long.MAX_VALUE, MemorySize.parse(Long.MAX_VALUE + " B"));
+        assertThrows(BadRequestException.class, () -> MemorySize.parse("99999999 TB"));
+        assertThrows(BadRequestException.class, () -> MemorySize.parse("8388608 TB"));
+        assertThrows(BadRequestException.class, () -> MemorySize.parse("0.5 B"));
+    }
+
+    @Test
+    void testParse_Negative() {
+        assertEquals(0, MemorySize.parse("-0 GB"));
+        assertThrows(BadRequestException.class, () -> MemorySize.parse("-1 GB"));
+        assertThrows(BadRequestException.class, () -> MemorySize.parse("-512"));
+    }
+
+    @Test
+    void testFormat() {
+        assertEquals("32 GB", MemorySize.format(32L << 30));
+        assertEquals("1536 MB", MemorySize.format(1536L << 20));
+        assertEquals("0 B", MemorySize.format(0));
+        assertEquals(1536L << 20, MemorySize.parse(MemorySize.format(1536L << 20)));
+    }
+}
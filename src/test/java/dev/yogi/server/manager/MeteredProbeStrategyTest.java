@@ -0,0 +1,54 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.probe.MeteredProbeStrategy;
+import dev.yogi.server.manager.probe.ProbeResult;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeteredProbeStrategyTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testProbe_RecordsLatencyByOutcome() throws Exception {
+        MeteredProbeStrategy strategy = new MeteredProbeStrategy((ipAddress, timeout) -> CompletableFuture.completedFuture(
+                new ProbeResult(ipAddress.equals("10.0.0.1"), 2_000_000)), meterRegistry, "tcp");
+
+        assertTrue(strategy.probe("10.0.0.1", TIMEOUT).get().isReachable());
+        assertFalse(strategy.probe("10.0.0.2", TIMEOUT).get().isReachable());
+        assertFalse(strategy.probe("10.0.0.3", TIMEOUT).get().isReachable());
+
+        Timer up = timer("up");
+        assertEquals(1, up.count());
+        // the latency of the probe result is recorded, not the time spent waiting for it
+        assertEquals(2, up.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(2, timer("down").count());
+        assertEquals(0, timer("error").count());
+    }
+
+    @Test
+    void testProbe_FailureIsRecordedAsError() {
+        MeteredProbeStrategy strategy = new MeteredProbeStrategy((ipAddress, timeout) ->
+                CompletableFuture.failedFuture(new IllegalStateException("Probe failed")), meterRegistry, "tcp");
+
+        assertThrows(ExecutionException.class, () -> strategy.probe("10.0.0.1", TIMEOUT).get());
+
+        assertEquals(1, timer("error").count());
+        assertEquals(0, timer("up").count());
+        assertEquals(0, timer("down").count());
+    }
+
+    private Timer timer(String outcome) {
+        return meterRegistry.get("server.probe").tag("strategy", "tcp").tag("outcome", outcome).timer();
+    }
+}
@@ -0,0 +1,94 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.model.StatusHistory;
+import dev.yogi.server.manager.repository.StatusHistoryRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationTest {
+
+    private EmbeddedPostgres postgres;
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void testMigrate_PartitionsCanBeCreatedAgain() {
+        migrate();
+        StatusHistoryRepository statusHistoryRepository = new StatusHistoryRepository(jdbcTemplate);
+
+        // the health check runs this on startup, after the migration created the same partitions
+        statusHistoryRepository.createPartitions(1);
+        statusHistoryRepository.createPartitions(2);
+
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT count(*) FROM pg_inherits "
+                + "WHERE inhparent = 'server_status_history'::regclass", Integer.class));
+    }
+
+    @Test
+    void testMigrate_DatabaseCreatedByHibernate() {
+        // the schema ddl-auto created before the migrations existed
+        jdbcTemplate.execute("CREATE SEQUENCE hibernate_sequence START 1 INCREMENT 1");
+        jdbcTemplate.execute("CREATE TABLE server (id INT8 NOT NULL, ip_address VARCHAR(255), memory VARCHAR(255), "
+                + "name VARCHAR(255), status INT4, type VARCHAR(255), PRIMARY KEY (id))");
+        jdbcTemplate.execute("ALTER TABLE server ADD CONSTRAINT uk_96tx503up4941ibvsnhh8itdi UNIQUE (ip_address)");
+        jdbcTemplate.update("INSERT INTO server (id, ip_address, memory, name, status, type) VALUES "
+                + "(1, '10.0.0.1', '32 GB', 'a', 0, 'linux'), "
+                + "(2, '10.0.0.2', '512MB', 'b', 1, ' Windows '), "
+                + "(3, '10.0.0.3', 'plenty', 'c', 0, 'mainframe')");
+
+        migrate();
+
+        assertEquals(32L * 1024 * 1024 * 1024, jdbcTemplate.queryForObject("SELECT memory_bytes FROM server WHERE id = 1", Long.class));
+        assertEquals(512L * 1024 * 1024, jdbcTemplate.queryForObject("SELECT memory_bytes FROM server WHERE id = 2", Long.class));
+        assertNull(jdbcTemplate.queryForObject("SELECT memory_bytes FROM server WHERE id = 3", Long.class));
+        assertEquals(List.of("LINUX", "WINDOWS", "OTHER"),
+                jdbcTemplate.queryForList("SELECT type FROM server ORDER BY id", String.class));
+
+        // the summary counts the existing rows and the triggers keep it current
+        jdbcTemplate.update("DELETE FROM server WHERE id = 3");
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT sum(server_count) FROM fleet_summary", Integer.class));
+
+        // new ids continue after the existing ones, history rows find a partition
+        assertTrue(jdbcTemplate.queryForObject("SELECT nextval('server_seq')", Long.class) > 3);
+        new StatusHistoryRepository(jdbcTemplate).appendAll(List.of(StatusHistory.builder()
+                .serverId(1L)
+                .status(Status.SERVER_UP)
+                .checkedAt(OffsetDateTime.now())
+                .build()));
+        new StatusHistoryRepository(jdbcTemplate).createPartitions(1);
+    }
+
+    private void migrate() {
+        // same settings as application.yml
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+}
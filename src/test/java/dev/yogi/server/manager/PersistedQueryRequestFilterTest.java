@@ -0,0 +1,106 @@
+package dev.yogi.server.manager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yogi.server.manager.graphql.PersistedQueryRequestFilter;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistedQueryRequestFilterTest {
+
+    private static final String PERSISTED = "\"extensions\":{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"abc\"}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PersistedQueryRequestFilter filter = new PersistedQueryRequestFilter(objectMapper, "/graphql");
+
+    @Test
+    void testHashOnlyRequestGetsMarker() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/graphql", "{\"variables\":{\"id\":1}," + PERSISTED + "}"), new MockHttpServletResponse(), chain);
+
+        JsonNode body = objectMapper.readTree(chain.getRequest().getInputStream());
+        assertEquals(PersistedQuerySupport.PERSISTED_QUERY_MARKER, body.get("query").asText());
+        assertEquals(1, body.get("variables").get("id").asInt());
+    }
+
+    @Test
+    void testRequestWithQueryIsPassedUnchanged() throws Exception {
+        String json = "{\"query\":\"{ servers { id } }\",\"variables\":{\"ids\":[1,2]}," + PERSISTED + "}";
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/graphql", json), new MockHttpServletResponse(), chain);
+
+        assertEquals(json, StreamUtils.copyToString(chain.getRequest().getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testQueryOfWrongTypeIsRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/graphql", "{\"query\":{\"text\":1}," + PERSISTED + "}"), response, chain);
+
+        assertEquals(400, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testOtherPathIsNotBuffered() throws Exception {
+        MockHttpServletRequest request = request("/actuator/health", "{" + PERSISTED + "}");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+    }
+
+    @Test
+    void testReadListenerIsCalledWithBufferedBody() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("/graphql", "{\"query\":\"{ servers { id } }\"}"), new MockHttpServletResponse(), chain);
+        ServletInputStream input = chain.getRequest().getInputStream();
+        List<String> calls = new ArrayList<>();
+
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                calls.add("data");
+                StreamUtils.drain(input);
+            }
+
+            @Override
+            public void onAllDataRead() {
+                calls.add("done");
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                calls.add("error");
+            }
+        });
+
+        assertEquals(List.of("data", "done"), calls);
+        assertTrue(input.isFinished());
+    }
+
+    private static MockHttpServletRequest request(String path, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.repository.ProbeLeaseRepository;
+import dev.yogi.server.manager.service.ConsistentHashRing;
+import dev.yogi.server.manager.service.ProbeShardCoordinator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProbeShardCoordinatorTest {
+
+    @Mock
+    private ProbeLeaseRepository probeLeaseRepository;
+
+    private final ServerManagerProperties properties = new ServerManagerProperties();
+    private ProbeShardCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        properties.getHealthCheck().getSharding().setLeaseTtl(Duration.ofMillis(200));
+        coordinator = new ProbeShardCoordinator(probeLeaseRepository, properties);
+    }
+
+    @Test
+    void testOwns_RingFollowsMembership() {
+        String self = coordinator.getNodeId();
+        when(probeLeaseRepository.findLiveNodes()).thenReturn(List.of(self));
+
+        coordinator.heartbeat();
+        assertTrue(LongStream.rangeClosed(1, 100).allMatch(id -> coordinator.owns(server(id))));
+
+        // another replica joined, this one keeps only the servers the ring still assigns to it
+        when(probeLeaseRepository.findLiveNodes()).thenReturn(List.of(self, "other"));
+        coordinator.heartbeat();
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(self, "other"),
+                properties.getHealthCheck().getSharding().getVirtualNodes());
+        LongStream.rangeClosed(1, 100).forEach(id ->
+                assertEquals(self.equals(ring.owner(id)), coordinator.owns(server(id))));
+
+        // the other replica left, every server comes back
+        when(probeLeaseRepository.findLiveNodes()).thenReturn(List.of(self));
+        coordinator.heartbeat();
+        assertTrue(LongStream.rangeClosed(1, 100).allMatch(id -> coordinator.owns(server(id))));
+    }
+
+    @Test
+    void testOwns_NothingOnceLeaseExpired() throws Exception {
+        when(probeLeaseRepository.findLiveNodes()).thenReturn(List.of(coordinator.getNodeId()));
+        coordinator.heartbeat();
+        assertTrue(coordinator.owns(server(1)));
+
+        // renewals fail, the other replicas take the servers over once the lease expired
+        doThrow(new DataAccessResourceFailureException("Connection refused"))
+                .when(probeLeaseRepository).renew(eq(coordinator.getNodeId()), any());
+        coordinator.heartbeat();
+        assertTrue(coordinator.owns(server(1)));
+        Thread.sleep(Duration.ofMillis(300).toMillis());
+        coordinator.heartbeat();
+
+        assertFalse(coordinator.owns(server(1)));
+    }
+
+    @Test
+    void testOwns_EverythingWhenShardingDisabled() {
+        properties.getHealthCheck().getSharding().setEnabled(false);
+
+        assertTrue(coordinator.owns(server(1)));
+        verifyNoInteractions(probeLeaseRepository);
+    }
+
+    private static Server server(long id) {
+        return Server.builder().id(id).build();
+    }
+}
@@ -0,0 +1,74 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.metrics.QueryCostInstrumentation;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCostInstrumentationTest {
+
+    private static final String SCHEMA = "type Query { servers(size: Int): [Server] pingServer(ipAddress: String!): Server }"
+            + " type Server { id: ID name: String }";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger requestedSize = new AtomicInteger();
+    private GraphQL graphQL;
+
+    @BeforeEach
+    void setUp() {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("servers", env -> {
+                            requestedSize.set(env.getArgument("size"));
+                            return List.of(Map.of("id", "1", "name", "local"));
+                        })
+                        .dataFetcher("pingServer", env -> Map.of("id", "1")))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SCHEMA), wiring);
+        graphQL = GraphQL.newGraphQL(schema)
+                .instrumentation(new QueryCostInstrumentation(1000, 100, Map.of("pingServer", 100), meterRegistry))
+                .build();
+    }
+
+    @Test
+    void testCost_Accepted() {
+        ExecutionResult result = graphQL.execute("{ servers(size: 50) { id name } }");
+
+        assertTrue(result.getErrors().isEmpty());
+        // 1 for the list field plus 2 fields for each of the 50 servers
+        assertEquals(101, meterRegistry.get("graphql.operation.cost").summary().totalAmount());
+    }
+
+    @Test
+    void testCost_PageSizeClamped() {
+        ExecutionResult result = graphQL.execute("{ servers(size: 1000000) { id } }");
+
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(100, requestedSize.get());
+    }
+
+    @Test
+    void testCost_ExpensiveFieldsRejected() {
+        StringBuilder query = new StringBuilder("{");
+        for (int i = 0; i < 10; i++) {
+            query.append(" p").append(i).append(": pingServer(ipAddress: \"10.0.0.").append(i).append("\") { id }");
+        }
+        ExecutionResult result = graphQL.execute(query.append(" }").toString());
+
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).getMessage().contains("exceeds the maximum of 1000"));
+        assertNull(result.getData());
+    }
+}
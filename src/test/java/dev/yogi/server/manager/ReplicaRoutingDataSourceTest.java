@@ -0,0 +1,181 @@
+package dev.yogi.server.manager;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.yogi.server.manager.configuration.PersistenceConfiguration;
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.datasource.FairDataSource;
+import dev.yogi.server.manager.datasource.ReadAfterWriteGuard;
+import dev.yogi.server.manager.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private DataSource replica2;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replica1Connection;
+
+    @Mock
+    private Connection replica2Connection;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReadAfterWriteGuard readAfterWriteGuard;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        readAfterWriteGuard = new ReadAfterWriteGuard(new ServerManagerProperties());
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        dataSource = new ReplicaRoutingDataSource(primary, replicas, readAfterWriteGuard, Duration.ofMinutes(1));
+        dataSource.bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testGetConnection_WritesGoToPrimary() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void testGetConnection_ReadsAlternateReplicas() throws Exception {
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replica1Connection, dataSource.getConnection());
+        assertSame(replica2Connection, dataSource.getConnection());
+        assertSame(replica1Connection, dataSource.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void testGetConnection_ReadAfterWriteGoesToPrimary() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        TransactionSynchronizationManager.initSynchronization();
+        readAfterWriteGuard.markWritten(List.of(1L), List.of("10.0.0.1"));
+        readAfterWriteGuard.pinIfRecentlyWritten(List.of(), List.of("10.0.0.1"));
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(replica1, replica2);
+        assertEquals(1, meterRegistry.get("jdbc.reads").tag("reason", "recent-write").counter().count());
+    }
+
+    @Test
+    void testGetConnection_ReadOfOtherServerGoesToReplica() throws Exception {
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        TransactionSynchronizationManager.initSynchronization();
+        readAfterWriteGuard.markWritten(List.of(1L), List.of("10.0.0.1"));
+        readAfterWriteGuard.pinIfRecentlyWritten(List.of(2L), List.of("10.0.0.2"));
+
+        // only lookups of the changed server are kept on the primary
+        assertSame(replica1Connection, dataSource.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void testGetConnection_PinEndsWithTransaction() throws Exception {
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        TransactionSynchronizationManager.initSynchronization();
+        readAfterWriteGuard.markWritten(List.of(1L), List.of());
+        readAfterWriteGuard.pinIfRecentlyWritten(List.of(1L), List.of());
+        assertTrue(readAfterWriteGuard.isPinned());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertFalse(readAfterWriteGuard.isPinned());
+        assertSame(replica1Connection, dataSource.getConnection());
+    }
+
+    @Test
+    void testGetConnection_BulkChangePinsEveryLookup() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        TransactionSynchronizationManager.initSynchronization();
+        readAfterWriteGuard.markAllWritten();
+        readAfterWriteGuard.pinIfRecentlyWritten(List.of(2L), List.of());
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void testGetConnection_FailedReplicaIsSkipped() throws Exception {
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(replica2.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // both replicas fail, the read falls back to the primary
+        assertSame(primaryConnection, dataSource.getConnection());
+        // the failed replicas are not tried again within the retry delay
+        assertSame(primaryConnection, dataSource.getConnection());
+        verify(replica1, times(1)).getConnection();
+        verify(replica2, times(1)).getConnection();
+    }
+
+    @Test
+    void testReplicaRoutingDataSource_ReplicasWaitInLineLikePrimary() throws Exception {
+        HikariDataSource primaryPool = new HikariDataSource();
+        primaryPool.setJdbcUrl("jdbc:postgresql://localhost:1/db-server-manager");
+        ServerManagerProperties properties = new ServerManagerProperties();
+        properties.getReplicas().setUrls(List.of("jdbc:postgresql://localhost:1/db-server-manager"));
+
+        try (ReplicaRoutingDataSource routing = new PersistenceConfiguration().replicaRoutingDataSource(
+                FairDataSource.of(primaryPool), properties, readAfterWriteGuard)) {
+            routing.bindTo(meterRegistry);
+
+            assertEquals(0, meterRegistry.get("jdbc.connections.waiting").tag("pool", "replica-1").gauge().value());
+        } finally {
+            primaryPool.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.service.ServerCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerCacheTest {
+
+    private final ServerCache serverCache = new ServerCache(new ServerManagerProperties());
+
+    @Test
+    void testGetAllById_LoadedServersAreCached() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Set<Long>, Map<Long, Server>> loader = ids -> {
+            loads.incrementAndGet();
+            return Map.of(1L, server(1L, "before"));
+        };
+
+        serverCache.getAllById(List.of(1L), loader);
+        serverCache.getAllById(List.of(1L), loader);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGetAllById_EvictionWhileLoadingDropsLoadedServers() {
+        // the change commits after the loader read the row, before the loaded row is stored
+        Map<Long, Server> loaded = serverCache.getAllById(List.of(1L), ids -> {
+            serverCache.evict(1L, List.of("10.0.0.1"));
+            return Map.of(1L, server(1L, "before"));
+        });
+
+        Map<Long, Server> reloaded = serverCache.getAllById(List.of(1L), ids -> Map.of(1L, server(1L, "after")));
+
+        assertEquals("before", loaded.get(1L).getName());
+        assertEquals("after", reloaded.get(1L).getName());
+    }
+
+    @Test
+    void testGetAllByIpAddress_BulkEvictionWhileLoadingDropsLoadedServers() {
+        serverCache.getAllByIpAddress(List.of("10.0.0.1"), ipAddresses -> {
+            serverCache.evictAll(List.of(1L));
+            return Map.of("10.0.0.1", server(1L, "before"));
+        });
+
+        Map<String, Server> reloaded = serverCache.getAllByIpAddress(List.of("10.0.0.1"),
+                ipAddresses -> Map.of("10.0.0.1", server(1L, "after")));
+
+        assertEquals("after", reloaded.get("10.0.0.1").getName());
+    }
+
+    private static Server server(Long id, String name) {
+        return Server.builder().id(id).ipAddress("10.0.0.1").name(name).build();
+    }
+}
@@ -0,0 +1,75 @@
+package dev.yogi.server.manager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.model.ExportFormat;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerType;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.repository.ServerRepository;
+import dev.yogi.server.manager.service.ServerExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServerExportServiceTest {
+
+    @Mock
+    private ServerRepository serverRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ServerExportService serverExportService;
+
+    @BeforeEach
+    void setUp() {
+        ServerManagerProperties properties = new ServerManagerProperties();
+        properties.getBulk().setChunkSize(2);
+        serverExportService = new ServerExportService(serverRepository, entityManager, new ObjectMapper(), properties);
+    }
+
+    @Test
+    void testExport_Csv() throws Exception {
+        when(serverRepository.streamAll()).thenReturn(Stream.of(
+                Server.builder().id(1L).ipAddress("10.0.0.1").name("web, \"primary\"").memoryBytes(1024L)
+                        .type(ServerType.LINUX).status(Status.SERVER_UP).build(),
+                Server.builder().id(2L).ipAddress("10.0.0.2").status(Status.SERVER_DOWN).build(),
+                Server.builder().id(3L).ipAddress("10.0.0.3").status(Status.SERVER_DOWN).build()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = serverExportService.export(ExportFormat.CSV, out);
+
+        assertEquals(3, rows);
+        assertEquals("id,ipAddress,name,memoryBytes,type,status\n"
+                        + "1,10.0.0.1,\"web, \"\"primary\"\"\",1024,LINUX,SERVER_UP\n"
+                        + "2,10.0.0.2,,,,SERVER_DOWN\n"
+                        + "3,10.0.0.3,,,,SERVER_DOWN\n",
+                out.toString(StandardCharsets.UTF_8));
+        // cleared once per full chunk
+        verify(entityManager, times(1)).clear();
+    }
+
+    @Test
+    void testExport_Ndjson() throws Exception {
+        when(serverRepository.streamAll()).thenReturn(Stream.of(
+                Server.builder().id(1L).ipAddress("10.0.0.1").memoryBytes(1024L).status(Status.SERVER_UP).build()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        serverExportService.export(ExportFormat.NDJSON, out);
+
+        assertEquals("{\"id\":1,\"ipAddress\":\"10.0.0.1\",\"name\":null,\"memoryBytes\":1024,\"type\":null,\"status\":\"SERVER_UP\"}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
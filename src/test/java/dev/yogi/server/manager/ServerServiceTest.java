@@ -1,25 +1,57 @@
 package dev.yogi.server.manager;
 
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.datasource.ReadAfterWriteGuard;
 import dev.yogi.server.manager.exception.BadRequestException;
 import dev.yogi.server.manager.exception.InternalServerException;
 import dev.yogi.server.manager.exception.NotFoundException;
+import dev.yogi.server.manager.model.FleetGroup;
+import dev.yogi.server.manager.model.FleetStats;
+import dev.yogi.server.manager.model.ImportReport;
+import dev.yogi.server.manager.model.PingSummary;
 import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerChange;
+import dev.yogi.server.manager.model.ServerChangeFeed;
+import dev.yogi.server.manager.model.ServerConnection;
+import dev.yogi.server.manager.model.ServerPatch;
+import dev.yogi.server.manager.model.ServerSearchFilter;
+import dev.yogi.server.manager.model.ServerType;
 import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.event.ServersBulkChangedEvent;
+import dev.yogi.server.manager.probe.CoalescingProbeStrategy;
+import dev.yogi.server.manager.probe.ProbeResult;
+import dev.yogi.server.manager.probe.ProbeStrategy;
+import dev.yogi.server.manager.repository.FleetSummaryRepository;
+import dev.yogi.server.manager.repository.ServerChangeRepository;
 import dev.yogi.server.manager.repository.ServerRepository;
+import dev.yogi.server.manager.repository.ServerUpdateRepository;
+import dev.yogi.server.manager.repository.StatusHistoryRepository;
+import dev.yogi.server.manager.service.ServerCache;
 import dev.yogi.server.manager.service.ServerService;
+import dev.yogi.server.manager.service.StatusWriteBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
-import java.net.InetAddress;
+import java.net.SocketException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +62,41 @@ class ServerServiceTest {
     @Mock
     private ServerRepository serverRepository;
 
+    @Spy
+    private ServerManagerProperties properties = new ServerManagerProperties();
+
+    @Mock
+    private ProbeStrategy probeStrategy;
+
+    // reads the mocked strategy lazily, it is created after this field
+    @Spy
+    private CoalescingProbeStrategy pingProbeStrategy = new CoalescingProbeStrategy(
+            (ipAddress, timeout) -> probeStrategy.probe(ipAddress, timeout), Duration.ofSeconds(2), new SimpleMeterRegistry());
+
+    @Spy
+    private ServerCache serverCache = new ServerCache(new ServerManagerProperties());
+
+    @Spy
+    private ReadAfterWriteGuard readAfterWriteGuard = new ReadAfterWriteGuard(new ServerManagerProperties());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StatusHistoryRepository statusHistoryRepository;
+
+    @Mock
+    private StatusWriteBuffer statusWriteBuffer;
+
+    @Mock
+    private FleetSummaryRepository fleetSummaryRepository;
+
+    @Mock
+    private ServerChangeRepository serverChangeRepository;
+
+    @Mock
+    private ServerUpdateRepository serverUpdateRepository;
+
     @InjectMocks
     private ServerService serverService;
 
@@ -76,15 +143,15 @@ class ServerServiceTest {
         Server mockServer = new Server();
         mockServer.setIpAddress(ipAddress);
 
-        InetAddress inetAddress = mock(InetAddress.class);
         when(serverRepository.findByIpAddress(ipAddress)).thenReturn(Optional.of(mockServer));
-        lenient().when(inetAddress.isReachable(5000)).thenReturn(true);
+        when(probeStrategy.probe(ipAddress, Duration.ofSeconds(5))).thenReturn(CompletableFuture.completedFuture(new ProbeResult(true, 1_000_000)));
 
         Server server = serverService.ping(ipAddress);
 
         assertNotNull(server);
         assertEquals(Status.SERVER_UP, server.getStatus());
-        verify(serverRepository).save(mockServer);
+        verify(statusWriteBuffer).submit(mockServer, Status.SERVER_UP);
+        verify(serverRepository, never()).save(any());
     }
 
     @Order(5)
@@ -94,15 +161,14 @@ class ServerServiceTest {
         Server mockServer = new Server();
         mockServer.setIpAddress(ipAddress);
 
-        InetAddress inetAddress = mock(InetAddress.class);
         when(serverRepository.findByIpAddress(ipAddress)).thenReturn(Optional.of(mockServer));
-        lenient().when(inetAddress.isReachable(5000)).thenReturn(false);
+        when(probeStrategy.probe(ipAddress, Duration.ofSeconds(5))).thenReturn(CompletableFuture.completedFuture(new ProbeResult(false, 5_000_000_000L)));
 
         Server server = serverService.ping(ipAddress);
 
         assertNotNull(server);
         assertEquals(Status.SERVER_DOWN, server.getStatus());
-        verify(serverRepository).save(mockServer);
+        verify(statusWriteBuffer).submit(mockServer, Status.SERVER_DOWN);
     }
 
 
@@ -113,13 +179,65 @@ class ServerServiceTest {
         Server mockServer = new Server();
         mockServer.setIpAddress(ipAddress);
 
-        InetAddress inetAddress = mock(InetAddress.class);
+        CompletableFuture<ProbeResult> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new SocketException("Invalid argument"));
         when(serverRepository.findByIpAddress(ipAddress)).thenReturn(Optional.of(mockServer));
-        lenient().when(inetAddress.isReachable(5000)).thenReturn(false);
+        when(probeStrategy.probe(ipAddress, Duration.ofSeconds(5))).thenReturn(failed);
 
         assertThrows(InternalServerException.class, () -> serverService.ping(ipAddress));
     }
 
+    @Order(4)
+    @Test
+    void testPing_ProbeNeverCompletes() {
+        String ipAddress = "10.0.0.1";
+        Server mockServer = new Server();
+        mockServer.setIpAddress(ipAddress);
+        properties.getPing().setTimeout(Duration.ofMillis(100));
+        properties.getPing().setRateLimitMaxWait(Duration.ZERO);
+
+        when(serverRepository.findByIpAddress(ipAddress)).thenReturn(Optional.of(mockServer));
+        when(probeStrategy.probe(ipAddress, Duration.ofMillis(100))).thenReturn(new CompletableFuture<>());
+
+        // the ping gives up after the probe timeout and the slack instead of blocking forever
+        InternalServerException e = assertThrows(InternalServerException.class, () -> serverService.ping(ipAddress));
+        assertTrue(e.getMessage().contains("did not complete"));
+        verifyNoInteractions(statusWriteBuffer);
+    }
+
+    @Order(5)
+    @Test
+    void testPing_RecentResult() {
+        String ipAddress = "127.0.0.1";
+        Server mockServer = new Server();
+        mockServer.setIpAddress(ipAddress);
+
+        when(serverRepository.findByIpAddress(ipAddress)).thenReturn(Optional.of(mockServer));
+        when(probeStrategy.probe(ipAddress, Duration.ofSeconds(5))).thenReturn(CompletableFuture.completedFuture(new ProbeResult(true, 1_000_000)));
+
+        serverService.ping(ipAddress);
+        serverService.ping(ipAddress);
+        verify(probeStrategy, times(1)).probe(ipAddress, Duration.ofSeconds(5));
+
+        // a forced ping skips the recent result
+        serverService.ping(ipAddress, true);
+        verify(probeStrategy, times(2)).probe(ipAddress, Duration.ofSeconds(5));
+    }
+
+    @Order(5)
+    @Test
+    void testPing_RateLimited() {
+        String ipAddress = "127.0.0.1";
+        Server mockServer = new Server();
+        mockServer.setIpAddress(ipAddress);
+
+        when(serverRepository.findByIpAddress(ipAddress)).thenReturn(Optional.of(mockServer));
+        when(probeStrategy.probe(ipAddress, Duration.ofSeconds(5)))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("Probe rate limit exceeded")));
+
+        assertThrows(BadRequestException.class, () -> serverService.ping(ipAddress));
+    }
+
 
     @Order(6)
     @Test
@@ -159,8 +277,7 @@ class ServerServiceTest {
         server2.setIpAddress("192.168.1.1");
         serversToSave.add(server2);
 
-        when(serverRepository.findByIpAddress("127.0.0.1")).thenReturn(Optional.empty());
-        when(serverRepository.findByIpAddress("192.168.1.1")).thenReturn(Optional.empty());
+        when(serverRepository.findExistingIpAddresses(anyCollection())).thenReturn(List.of());
 
         when(serverRepository.saveAll(serversToSave)).thenReturn(serversToSave);
 
@@ -181,8 +298,6 @@ class ServerServiceTest {
         server2.setIpAddress("127.0.0.1");
         serversToSave.add(server2);
 
-        when(serverRepository.findByIpAddress("127.0.0.1")).thenReturn(Optional.empty());
-
         assertThrows(BadRequestException.class, () -> serverService.saveAll(serversToSave));
     }
 
@@ -199,8 +314,7 @@ class ServerServiceTest {
         server2.setIpAddress("192.168.1.1");
         serversToSave.add(server2);
 
-        when(serverRepository.findByIpAddress("127.0.0.1")).thenReturn(Optional.empty());
-        when(serverRepository.findByIpAddress("192.168.1.1")).thenReturn(Optional.of(server2));
+        when(serverRepository.findExistingIpAddresses(anyCollection())).thenReturn(List.of("192.168.1.1"));
 
         assertThrows(BadRequestException.class, () -> serverService.saveAll(serversToSave));
     }
@@ -212,19 +326,23 @@ class ServerServiceTest {
         Server existingServer = new Server();
         existingServer.setId(serverId);
         existingServer.setIpAddress("127.0.0.1");
+        existingServer.setVersion(3L);
 
         Server updatedServer = new Server();
         updatedServer.setId(serverId);
         updatedServer.setIpAddress("192.168.1.1");
+        updatedServer.setVersion(3L);
 
-        when(serverRepository.findById(serverId)).thenReturn(Optional.of(existingServer));
-        when(serverRepository.findByIpAddressAndIdNot(updatedServer.getIpAddress(), updatedServer.getId())).thenReturn(Optional.empty());
-        when(serverRepository.save(existingServer)).thenReturn(existingServer);
+        // the response is the row as written, not the input
+        Server writtenServer = updatedServer.toBuilder().name("from database").version(4L).build();
+        when(serverUpdateRepository.update(updatedServer))
+                .thenReturn(Optional.of(new ServerUpdateRepository.UpdatedServer(existingServer, writtenServer)));
 
         Server result = serverService.update(updatedServer);
 
-        assertNotNull(result);
-        assertEquals(updatedServer.getIpAddress(), result.getIpAddress());
+        assertSame(writtenServer, result);
+        assertEquals(4L, result.getVersion());
+        verifyNoInteractions(serverRepository);
     }
 
     @Order(12)
@@ -233,7 +351,8 @@ class ServerServiceTest {
         Server updatedServer = new Server();
         updatedServer.setId(1L);
 
-        when(serverRepository.findById(updatedServer.getId())).thenReturn(Optional.empty());
+        when(serverUpdateRepository.update(updatedServer)).thenReturn(Optional.empty());
+        when(serverUpdateRepository.findVersion(updatedServer.getId())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> serverService.update(updatedServer));
     }
@@ -241,21 +360,31 @@ class ServerServiceTest {
     @Order(13)
     @Test
     void testUpdate_WithDuplicateIpAddress() {
-        Long serverId = 1L;
-        Server existingServer = new Server();
-        existingServer.setId(serverId);
-        existingServer.setIpAddress("127.0.0.1");
-
         Server updatedServer = new Server();
-        updatedServer.setId(serverId);
+        updatedServer.setId(1L);
         updatedServer.setIpAddress("127.0.0.2");
 
-        when(serverRepository.findById(serverId)).thenReturn(Optional.of(existingServer));
-        when(serverRepository.findByIpAddressAndIdNot(updatedServer.getIpAddress(), updatedServer.getId())).thenReturn(Optional.of(existingServer));
+        when(serverUpdateRepository.update(updatedServer)).thenThrow(new DuplicateKeyException("uk_96tx503up4941ibvsnhh8itdi"));
 
         assertThrows(BadRequestException.class, () -> serverService.update(updatedServer));
     }
 
+    @Order(13)
+    @Test
+    void testUpdate_StaleVersion() {
+        Server updatedServer = new Server();
+        updatedServer.setId(1L);
+        updatedServer.setIpAddress("127.0.0.2");
+        updatedServer.setVersion(2L);
+
+        when(serverUpdateRepository.update(updatedServer)).thenReturn(Optional.empty());
+        when(serverUpdateRepository.findVersion(updatedServer.getId())).thenReturn(Optional.of(3L));
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> serverService.update(updatedServer));
+        assertTrue(e.getMessage().contains("version is 3 instead of 2"));
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Order(14)
     @Test
     void testDelete() {
@@ -305,4 +434,256 @@ class ServerServiceTest {
 
         assertThrows(NotFoundException.class, () -> serverService.findServerByIpAddress(ipAddress));
     }
+
+    @Order(18)
+    @Test
+    void testPingAll() {
+        Server mockServer = new Server();
+        mockServer.setId(1L);
+        mockServer.setIpAddress("127.0.0.1");
+        mockServer.setStatus(Status.SERVER_DOWN);
+
+        when(serverRepository.findAll()).thenReturn(List.of(mockServer));
+        when(statusWriteBuffer.submit(mockServer, Status.SERVER_UP)).thenReturn(true);
+        when(probeStrategy.probe("127.0.0.1", Duration.ofSeconds(5))).thenReturn(CompletableFuture.completedFuture(new ProbeResult(true, 1_000_000)));
+
+        PingSummary summary = serverService.pingAll();
+
+        assertEquals(1, summary.getTotal());
+        assertEquals(1, summary.getUp());
+        assertEquals(0, summary.getDown());
+        assertEquals(1, summary.getChanged());
+        verify(statusWriteBuffer).flush();
+    }
+
+    @Order(19)
+    @Test
+    void testImportServers() {
+        Server newServer = new Server();
+        newServer.setIpAddress("192.168.1.1");
+        Server duplicateServer = new Server();
+        duplicateServer.setIpAddress("192.168.1.1");
+        Server existingServer = new Server();
+        existingServer.setIpAddress("127.0.0.1");
+
+        when(serverRepository.findExistingIpAddresses(anyCollection())).thenReturn(List.of("127.0.0.1"));
+        when(serverRepository.saveAll(List.of(newServer))).thenAnswer(invocation -> {
+            newServer.setId(1L);
+            return List.of(newServer);
+        });
+
+        ImportReport report = serverService.importServers(List.of(newServer, duplicateServer, existingServer));
+
+        assertEquals(1, report.getAccepted());
+        assertEquals(2, report.getRejected());
+        assertTrue(report.getResults().get(0).isAccepted());
+        assertEquals(1L, report.getResults().get(0).getId());
+        assertFalse(report.getResults().get(1).isAccepted());
+        assertFalse(report.getResults().get(2).isAccepted());
+        verify(serverRepository, times(1)).findExistingIpAddresses(anyCollection());
+    }
+
+    @Order(20)
+    @Test
+    void testFindConnection() {
+        Server server1 = new Server();
+        server1.setId(21L);
+        Server server2 = new Server();
+        server2.setId(22L);
+
+        when(serverRepository.findByIdGreaterThanOrderByIdAsc(20L, PageRequest.of(0, 2))).thenReturn(List.of(server1, server2));
+
+        ServerConnection first = serverService.findConnection(1, "c2VydmVyOjIw");
+
+        assertEquals(1, first.getEdges().size());
+        assertEquals(server1, first.getEdges().get(0).getNode());
+        assertTrue(first.getPageInfo().isHasNextPage());
+        assertEquals(first.getEdges().get(0).getCursor(), first.getPageInfo().getEndCursor());
+    }
+
+    @Order(21)
+    @Test
+    void testFindConnection_InvalidCursor() {
+        assertThrows(BadRequestException.class, () -> serverService.findConnection(10, "not-a-cursor"));
+    }
+
+    @Order(22)
+    @Test
+    void testFindById_Cached() {
+        Long serverId = 1L;
+        Server mockServer = new Server();
+        mockServer.setId(serverId);
+        mockServer.setIpAddress("127.0.0.1");
+        when(serverRepository.findById(serverId)).thenReturn(Optional.of(mockServer));
+
+        serverService.findById(serverId);
+        serverService.findById(serverId);
+        verify(serverRepository, times(1)).findById(serverId);
+
+        serverCache.onServerChanged(new ServerChangedEvent(mockServer, mockServer));
+        serverService.findById(serverId);
+        verify(serverRepository, times(2)).findById(serverId);
+    }
+
+    @Order(23)
+    @Test
+    void testUpdate_PublishesChange() {
+        Long serverId = 1L;
+        Server existingServer = new Server();
+        existingServer.setId(serverId);
+        existingServer.setIpAddress("127.0.0.1");
+
+        Server updatedServer = new Server();
+        updatedServer.setId(serverId);
+        updatedServer.setIpAddress("192.168.1.1");
+
+        when(serverUpdateRepository.update(updatedServer))
+                .thenReturn(Optional.of(new ServerUpdateRepository.UpdatedServer(existingServer, updatedServer)));
+
+        serverService.update(updatedServer);
+
+        verify(eventPublisher).publishEvent(argThat((ServerChangedEvent event) ->
+                event.getIpAddresses().equals(Set.of("127.0.0.1", "192.168.1.1"))));
+    }
+
+    @Order(24)
+    @Test
+    void testFindAllByIds() {
+        Server server1 = new Server();
+        server1.setId(1L);
+        Server server2 = new Server();
+        server2.setId(2L);
+
+        when(serverRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(server1, server2));
+
+        Map<Long, Server> servers = serverService.findAllByIds(List.of(1L, 2L, 3L));
+        assertEquals(Map.of(1L, server1, 2L, server2), servers);
+
+        // only the missing id is looked up again
+        when(serverRepository.findAllById(Set.of(3L))).thenReturn(List.of());
+        serverService.findAllByIds(List.of(1L, 3L));
+        verify(serverRepository).findAllById(Set.of(3L));
+    }
+
+    @Order(25)
+    @Test
+    void testSearch() {
+        Server server = new Server();
+        server.setId(21L);
+        ServerSearchFilter filter = ServerSearchFilter.builder()
+                .status(Status.SERVER_DOWN)
+                .type(ServerType.LINUX)
+                .minMemoryBytes(16L << 30)
+                .build();
+
+        when(serverRepository.search(filter, 20L, 11)).thenReturn(List.of(server));
+
+        ServerConnection connection = serverService.search(filter, 10, "c2VydmVyOjIw");
+
+        assertEquals(1, connection.getEdges().size());
+        assertEquals(server, connection.getEdges().get(0).getNode());
+        assertFalse(connection.getPageInfo().isHasNextPage());
+    }
+
+    @Order(26)
+    @Test
+    void testSearch_InvalidMemoryRange() {
+        ServerSearchFilter filter = ServerSearchFilter.builder()
+                .minMemoryBytes(32L << 30)
+                .maxMemoryBytes(16L << 30)
+                .build();
+
+        assertThrows(BadRequestException.class, () -> serverService.search(filter, 10, null));
+        verify(serverRepository, never()).search(any(), anyLong(), anyInt());
+    }
+
+    @Order(27)
+    @Test
+    void testFleetStats() {
+        FleetStats stats = FleetStats.builder()
+                .total(FleetGroup.builder().count(2).memorySumBytes(48L << 30).build())
+                .build();
+        when(fleetSummaryRepository.findStats()).thenReturn(stats);
+
+        assertEquals(stats, serverService.fleetStats());
+        verify(serverRepository, never()).findAll();
+    }
+
+    @Order(28)
+    @Test
+    void testUpdateServers_IpAddressOnManyServers() {
+        ServerSearchFilter filter = ServerSearchFilter.builder().type(ServerType.LINUX).build();
+        ServerPatch patch = ServerPatch.builder().ipAddress("10.0.0.1").build();
+        when(serverRepository.searchIds(filter, 0L, 2)).thenReturn(List.of(1L, 2L));
+
+        assertThrows(BadRequestException.class, () -> serverService.updateServers(filter, patch));
+        verify(serverRepository, never()).update(any(), anyCollection(), any());
+    }
+
+    @Order(29)
+    @Test
+    void testUpdateServers_Chunked() {
+        properties.getBulk().setChunkSize(2);
+        ServerSearchFilter filter = ServerSearchFilter.builder().status(Status.SERVER_DOWN).build();
+        ServerPatch patch = ServerPatch.builder().type(ServerType.VIRTUAL).build();
+        when(serverRepository.searchIds(filter, 0L, 2)).thenReturn(List.of(1L, 2L));
+        when(serverRepository.searchIds(filter, 2L, 2)).thenReturn(List.of(5L));
+        when(serverRepository.update(filter, List.of(1L, 2L), patch)).thenReturn(2);
+        when(serverRepository.update(filter, List.of(5L), patch)).thenReturn(1);
+
+        assertEquals(3, serverService.updateServers(filter, patch));
+        verify(eventPublisher).publishEvent(argThat((ServersBulkChangedEvent event) ->
+                event.getIds().equals(List.of(1L, 2L, 5L))));
+    }
+
+    @Order(30)
+    @Test
+    void testDeleteServers_ByIds() {
+        properties.getBulk().setChunkSize(2);
+        ServerSearchFilter rest = new ServerSearchFilter();
+        when(serverRepository.delete(rest, List.of(1L, 2L))).thenReturn(2);
+        when(serverRepository.delete(rest, List.of(3L))).thenReturn(0);
+
+        assertEquals(2, serverService.deleteServers(List.of(3L, 1L, 2L, 1L), null));
+        verify(serverRepository, never()).searchIds(any(), anyLong(), anyInt());
+    }
+
+    @Order(31)
+    @Test
+    void testDeleteServers_EmptyFilter() {
+        assertThrows(BadRequestException.class, () -> serverService.deleteServers(null, new ServerSearchFilter()));
+    }
+
+    @Order(32)
+    @Test
+    void testFindChangesSince() {
+        ServerChange updated = ServerChange.builder().version(700L).id(3L).server(new Server()).build();
+        ServerChange deleted = ServerChange.builder().version(702L).id(1L).deleted(true).build();
+        ServerChange pending = ServerChange.builder().version(705L).id(2L).server(new Server()).build();
+        when(serverChangeRepository.findChangesSince(0L, 0L, 3)).thenReturn(List.of(updated, deleted, pending));
+
+        ServerChangeFeed first = serverService.findChangesSince(null, 2);
+
+        assertEquals(List.of(updated, deleted), first.getChanges());
+        assertTrue(first.isHasMore());
+
+        // the cursor resumes after the last returned change
+        when(serverChangeRepository.findChangesSince(702L, 1L, 3)).thenReturn(List.of(pending));
+        ServerChangeFeed second = serverService.findChangesSince(first.getCursor(), 2);
+
+        assertEquals(List.of(pending), second.getChanges());
+        assertFalse(second.isHasMore());
+
+        // without new changes the cursor stays where it was
+        when(serverChangeRepository.findChangesSince(705L, 2L, 3)).thenReturn(List.of());
+        assertEquals(second.getCursor(), serverService.findChangesSince(second.getCursor(), 2).getCursor());
+    }
+
+    @Order(33)
+    @Test
+    void testFindChangesSince_InvalidCursor() {
+        // a connection cursor is not a change cursor
+        assertThrows(BadRequestException.class, () -> serverService.findChangesSince("c2VydmVyOjIw", 10));
+        assertThrows(BadRequestException.class, () -> serverService.findChangesSince(null, 0));
+    }
 }
@@ -0,0 +1,108 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerStatusChange;
+import dev.yogi.server.manager.model.ServerStatusFilter;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.service.ServerStatusPublisher;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerStatusPublisherTest {
+
+    private final ServerStatusPublisher publisher = new ServerStatusPublisher(new ServerManagerProperties());
+
+    @Test
+    void testCoalescesChangesOfSameServer() throws Exception {
+        List<ServerStatusChange> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = publisher.subscribe(null).subscribe(received::add);
+
+        publisher.onServerChanged(new ServerChangedEvent(server(1L, Status.SERVER_UP), server(1L, Status.SERVER_DOWN)));
+        publisher.onServerChanged(new ServerChangedEvent(server(2L, Status.SERVER_UP), server(2L, Status.SERVER_DOWN)));
+        publisher.onServerChanged(new ServerChangedEvent(server(2L, Status.SERVER_DOWN), server(2L, Status.SERVER_UP)));
+        Thread.sleep(Duration.ofSeconds(1).toMillis());
+        subscription.dispose();
+
+        assertEquals(1, received.size());
+        assertEquals(1L, received.get(0).getServer().getId());
+        assertEquals(Status.SERVER_UP, received.get(0).getPreviousStatus());
+        assertEquals(Status.SERVER_DOWN, received.get(0).getStatus());
+    }
+
+    @Test
+    void testFiltersChanges() throws Exception {
+        List<ServerStatusChange> received = new CopyOnWriteArrayList<>();
+        ServerStatusFilter filter = ServerStatusFilter.builder().status(Status.SERVER_UP).build();
+        Disposable subscription = publisher.subscribe(filter).subscribe(received::add);
+
+        publisher.onServerChanged(new ServerChangedEvent(server(1L, Status.SERVER_UP), server(1L, Status.SERVER_DOWN)));
+        publisher.onServerChanged(new ServerChangedEvent(server(2L, Status.SERVER_DOWN), server(2L, Status.SERVER_UP)));
+        publisher.onServerChanged(new ServerChangedEvent(server(3L, Status.SERVER_UP), server(3L, Status.SERVER_UP)));
+        Thread.sleep(Duration.ofSeconds(1).toMillis());
+        subscription.dispose();
+
+        assertEquals(1, received.size());
+        assertEquals(2L, received.get(0).getServer().getId());
+    }
+
+    @Test
+    void testSlowSubscriberDropsOldestChanges() throws Exception {
+        ServerManagerProperties properties = new ServerManagerProperties();
+        properties.getSubscription().setCoalesceWindow(Duration.ofMillis(20));
+        properties.getSubscription().setBufferSize(4);
+        ServerStatusPublisher publisher = new ServerStatusPublisher(properties);
+        List<ServerStatusChange> received = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        BaseSubscriber<ServerStatusChange> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(ServerStatusChange change) {
+                received.add(change);
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                error.set(throwable);
+            }
+        };
+        publisher.subscribe(null).subscribe(subscriber);
+
+        // many more changes than the buffer holds, spread over several coalescing windows
+        for (long id = 1; id <= 20; id++) {
+            publisher.onServerChanged(new ServerChangedEvent(server(id, Status.SERVER_UP), server(id, Status.SERVER_DOWN)));
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+
+        assertNull(error.get());
+        assertFalse(subscriber.isDisposed());
+        assertEquals(1, received.size());
+
+        // the latest changes are kept, the oldest were dropped
+        subscriber.request(Long.MAX_VALUE);
+        Thread.sleep(100);
+        assertEquals(5, received.size());
+        assertEquals(20L, received.get(4).getServer().getId());
+        assertNull(error.get());
+        subscriber.dispose();
+    }
+
+    private static Server server(Long id, Status status) {
+        return Server.builder().id(id).ipAddress("10.0.0." + id).status(status).build();
+    }
+}
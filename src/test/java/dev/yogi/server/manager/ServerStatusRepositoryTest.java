@@ -0,0 +1,76 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.repository.ServerStatusRepository;
+import dev.yogi.server.manager.repository.ServerUpdateRepository.UpdatedServer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerStatusRepositoryTest {
+
+    private EmbeddedPostgres postgres;
+    private JdbcTemplate jdbcTemplate;
+    private ServerStatusRepository serverStatusRepository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.update("INSERT INTO server (id, ip_address, name, status) VALUES "
+                + "(1, '10.0.0.1', 'a', 0), (2, '10.0.0.2', 'b', 1), (3, '10.0.0.3', 'c', 0)");
+        serverStatusRepository = new ServerStatusRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void testUpdateStatuses_OnlyChangedRowsAreWritten() {
+        long unchangedVersion = changeVersion(2L);
+        Map<Long, Status> statuses = new LinkedHashMap<>();
+        statuses.put(1L, Status.SERVER_DOWN);
+        statuses.put(2L, Status.SERVER_DOWN);
+        // removed servers are skipped
+        statuses.put(4L, Status.SERVER_DOWN);
+
+        List<UpdatedServer> updated = serverStatusRepository.updateStatuses(statuses);
+
+        assertEquals(1, updated.size());
+        assertEquals(1L, updated.get(0).getAfter().getId());
+        assertEquals("a", updated.get(0).getAfter().getName());
+        assertEquals(Status.SERVER_UP, updated.get(0).getBefore().getStatus());
+        assertEquals(Status.SERVER_DOWN, updated.get(0).getAfter().getStatus());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT status FROM server WHERE id = 1", Integer.class));
+        assertEquals(unchangedVersion, changeVersion(2L));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT status FROM server WHERE id = 3", Integer.class));
+    }
+
+    @Test
+    void testUpdateStatuses_StoredStatusIsCompared() {
+        // the caller still believes server 1 is up, it was stored as down meanwhile
+        jdbcTemplate.update("UPDATE server SET status = 1 WHERE id = 1");
+
+        assertTrue(serverStatusRepository.updateStatuses(Map.of(1L, Status.SERVER_DOWN)).isEmpty());
+        List<UpdatedServer> updated = serverStatusRepository.updateStatuses(Map.of(1L, Status.SERVER_UP));
+        assertEquals(Status.SERVER_DOWN, updated.get(0).getBefore().getStatus());
+        assertEquals(Status.SERVER_UP, updated.get(0).getAfter().getStatus());
+    }
+
+    private long changeVersion(Long id) {
+        return jdbcTemplate.queryForObject("SELECT change_version FROM server WHERE id = ?", Long.class, id);
+    }
+}
@@ -0,0 +1,71 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.ServerType;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.repository.ServerUpdateRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerUpdateRepositoryTest {
+
+    private EmbeddedPostgres postgres;
+    private JdbcTemplate jdbcTemplate;
+    private ServerUpdateRepository serverUpdateRepository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.update("INSERT INTO server (id, ip_address, name, memory_bytes, type, status) VALUES "
+                + "(1, '10.0.0.1', 'a', 1024, 'LINUX', 0), (2, '10.0.0.2', 'b', NULL, NULL, 1)");
+        serverUpdateRepository = new ServerUpdateRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void testUpdate_ReturnsRowBeforeAndAfter() {
+        Server server = Server.builder().id(1L).ipAddress("10.0.0.9").name("renamed").type(ServerType.VIRTUAL)
+                .status(Status.SERVER_DOWN).version(0).build();
+
+        ServerUpdateRepository.UpdatedServer updated = serverUpdateRepository.update(server).orElseThrow();
+
+        assertEquals("a", updated.getBefore().getName());
+        assertEquals(1024L, updated.getBefore().getMemoryBytes());
+        assertEquals(0L, updated.getBefore().getVersion());
+        assertEquals(server.toBuilder().version(1).build(), updated.getAfter());
+        assertEquals(Optional.of(1L), serverUpdateRepository.findVersion(1L));
+    }
+
+    @Test
+    void testUpdate_StaleVersionMatchesNothing() {
+        Server server = Server.builder().id(1L).ipAddress("10.0.0.1").status(Status.SERVER_UP).version(0).build();
+        serverUpdateRepository.update(server);
+
+        assertTrue(serverUpdateRepository.update(server).isEmpty());
+        assertTrue(serverUpdateRepository.update(server.toBuilder().id(3L).build()).isEmpty());
+        assertEquals(Optional.empty(), serverUpdateRepository.findVersion(3L));
+    }
+
+    @Test
+    void testUpdate_DuplicateIpAddress() {
+        Server server = Server.builder().id(1L).ipAddress("10.0.0.2").status(Status.SERVER_UP).version(0).build();
+
+        assertThrows(DuplicateKeyException.class, () -> serverUpdateRepository.update(server));
+    }
+}
@@ -0,0 +1,106 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.metrics.StatementCounter;
+import graphql.GraphQLContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class StatementCounterTest {
+
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(preparedStatement.executeQuery()).thenReturn(mock(ResultSet.class));
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(mock(ResultSet.class));
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = statementCounter.wrap(target);
+    }
+
+    @Test
+    void testWrap_CountsOnlyInsideScope() throws Exception {
+        GraphQLContext context = GraphQLContext.newContext().build();
+        StatementCounter.Scope scope = statementCounter.open(context);
+
+        execute("select 1");
+        statementCounter.callWithin(context, () -> {
+            execute("select 2");
+            return execute("select 3");
+        });
+        execute("select 4");
+
+        assertEquals(2, scope.close());
+    }
+
+    @Test
+    void testWrap_ClosedScopeStopsCounting() throws Exception {
+        GraphQLContext context = GraphQLContext.newContext().build();
+        StatementCounter.Scope scope = statementCounter.open(context);
+
+        statementCounter.callWithin(context, () -> execute("select 1"));
+        assertEquals(1, scope.close());
+        statementCounter.callWithin(context, () -> execute("select 2"));
+
+        assertEquals(1, scope.close());
+    }
+
+    @Test
+    void testWrap_OtherThreadsEnteringTheContextAreCounted() throws Exception {
+        GraphQLContext context = GraphQLContext.newContext().build();
+        StatementCounter.Scope scope = statementCounter.open(context);
+
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return statementCounter.callWithin(context, () -> execute("select 1"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).get();
+        CompletableFuture.runAsync(() -> execute("select 2")).get();
+
+        assertEquals(1, scope.close());
+    }
+
+    @Test
+    void testWrap_JdbcTemplateStatementsAreCounted() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        GraphQLContext context = GraphQLContext.newContext().build();
+        StatementCounter.Scope scope = statementCounter.open(context);
+
+        statementCounter.callWithin(context, () -> {
+            jdbcTemplate.query("select 1", rs -> null);
+            return jdbcTemplate.query("select ?", ps -> ps.setLong(1, 1L), rs -> null);
+        });
+
+        assertEquals(2, scope.close());
+    }
+
+    private boolean execute(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            return statement.executeQuery() != null;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
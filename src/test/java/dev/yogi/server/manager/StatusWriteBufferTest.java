@@ -0,0 +1,119 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.configuration.ServerManagerProperties;
+import dev.yogi.server.manager.event.ServerChangedEvent;
+import dev.yogi.server.manager.model.Server;
+import dev.yogi.server.manager.model.Status;
+import dev.yogi.server.manager.repository.ServerStatusRepository;
+import dev.yogi.server.manager.repository.ServerUpdateRepository.UpdatedServer;
+import dev.yogi.server.manager.service.StatusWriteBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatusWriteBufferTest {
+
+    @Mock
+    private ServerStatusRepository serverStatusRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private StatusWriteBuffer statusWriteBuffer;
+
+    @BeforeEach
+    void setUp() {
+        statusWriteBuffer = new StatusWriteBuffer(serverStatusRepository, new ServerManagerProperties(),
+                TransactionOperations.withoutTransaction(), eventPublisher);
+    }
+
+    @Test
+    void testFlush_NothingBufferedIsNotWritten() {
+        assertEquals(0, statusWriteBuffer.flush());
+        verifyNoInteractions(serverStatusRepository, eventPublisher);
+    }
+
+    @Test
+    void testFlush_UnchangedStatusHasNoEvent() {
+        when(serverStatusRepository.updateStatuses(any())).thenReturn(List.of());
+
+        assertFalse(statusWriteBuffer.submit(server(1L, Status.SERVER_UP), Status.SERVER_UP));
+
+        assertEquals(0, statusWriteBuffer.flush());
+        verify(serverStatusRepository).updateStatuses(Map.of(1L, Status.SERVER_UP));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testFlush_ChangesAreBatched() {
+        when(serverStatusRepository.updateStatuses(any())).thenReturn(List.of(
+                new UpdatedServer(server(1L, Status.SERVER_DOWN), server(1L, Status.SERVER_UP)),
+                new UpdatedServer(server(2L, Status.SERVER_UP), server(2L, Status.SERVER_DOWN))));
+
+        assertTrue(statusWriteBuffer.submit(server(1L, Status.SERVER_DOWN), Status.SERVER_UP));
+        assertTrue(statusWriteBuffer.submit(server(2L, Status.SERVER_UP), Status.SERVER_DOWN));
+        // a repeated probe of a buffered change is collapsed into it
+        assertTrue(statusWriteBuffer.submit(server(1L, Status.SERVER_DOWN), Status.SERVER_UP));
+
+        assertEquals(2, statusWriteBuffer.flush());
+
+        verify(serverStatusRepository).updateStatuses(Map.of(1L, Status.SERVER_UP, 2L, Status.SERVER_DOWN));
+        ArgumentCaptor<ServerChangedEvent> events = ArgumentCaptor.forClass(ServerChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(Status.SERVER_DOWN, events.getAllValues().get(0).getBefore().getStatus());
+        assertEquals(Status.SERVER_UP, events.getAllValues().get(0).getAfter().getStatus());
+
+        // nothing is left for the next flush
+        assertEquals(0, statusWriteBuffer.flush());
+        verifyNoMoreInteractions(serverStatusRepository);
+    }
+
+    @Test
+    void testFlush_LatestProbeIsWritten() {
+        when(serverStatusRepository.updateStatuses(any())).thenReturn(List.of());
+
+        assertTrue(statusWriteBuffer.submit(server(1L, Status.SERVER_DOWN), Status.SERVER_UP));
+        assertFalse(statusWriteBuffer.submit(server(1L, Status.SERVER_DOWN), Status.SERVER_DOWN));
+
+        statusWriteBuffer.flush();
+
+        verify(serverStatusRepository).updateStatuses(Map.of(1L, Status.SERVER_DOWN));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testFlush_StaleServerPublishesStoredChange() {
+        // the server was read as up, another node stored it as down meanwhile
+        when(serverStatusRepository.updateStatuses(any())).thenReturn(List.of(
+                new UpdatedServer(server(1L, Status.SERVER_DOWN), server(1L, Status.SERVER_UP))));
+
+        assertFalse(statusWriteBuffer.submit(server(1L, Status.SERVER_UP), Status.SERVER_UP));
+
+        assertEquals(1, statusWriteBuffer.flush());
+        ArgumentCaptor<ServerChangedEvent> event = ArgumentCaptor.forClass(ServerChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Status.SERVER_DOWN, event.getValue().getBefore().getStatus());
+        assertEquals(Status.SERVER_UP, event.getValue().getAfter().getStatus());
+    }
+
+    private static Server server(Long id, Status status) {
+        Server server = new Server();
+        server.setId(id);
+        server.setIpAddress("10.0.0." + id);
+        server.setStatus(status);
+        return server;
+    }
+}
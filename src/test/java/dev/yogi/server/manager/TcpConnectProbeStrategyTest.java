@@ -0,0 +1,96 @@
+package dev.yogi.server.manager;
+
+import dev.yogi.server.manager.probe.ProbeResult;
+import dev.yogi.server.manager.probe.TcpConnectProbeStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TcpConnectProbeStrategyTest {
+
+    private TcpConnectProbeStrategy strategy;
+
+    @AfterEach
+    void tearDown() {
+        strategy.close();
+    }
+
+    @Test
+    void testProbe_PortOpen() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            strategy = new TcpConnectProbeStrategy(List.of(socket.getLocalPort()), 16);
+
+            ProbeResult result = strategy.probe("127.0.0.1", Duration.ofSeconds(2)).get();
+
+            assertTrue(result.isReachable());
+        }
+    }
+
+    @Test
+    void testProbe_PortRefused() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        strategy = new TcpConnectProbeStrategy(List.of(port), 16);
+
+        // a refused connection still proves the host is up
+        ProbeResult result = strategy.probe("127.0.0.1", Duration.ofSeconds(2)).get();
+
+        assertTrue(result.isReachable());
+    }
+
+    @Test
+    void testProbe_ManyHostsWithBoundedInFlight() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0, 1000)) {
+            strategy = new TcpConnectProbeStrategy(List.of(socket.getLocalPort()), 8);
+
+            List<CompletableFuture<ProbeResult>> probes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                probes.add(strategy.probe("127.0.0.1", Duration.ofSeconds(2)));
+            }
+
+            for (CompletableFuture<ProbeResult> probe : probes) {
+                assertTrue(probe.get().isReachable());
+            }
+        }
+    }
+
+    @Test
+    void testProbe_UnknownHost() {
+        strategy = new TcpConnectProbeStrategy(List.of(80), 16);
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> strategy.probe("unknown.host.invalid", Duration.ofSeconds(1)).get());
+
+        assertInstanceOf(UnknownHostException.class, error.getCause());
+    }
+
+    @Test
+    void testProbe_OutOfFileDescriptorsIsNotDown() {
+        strategy = new TcpConnectProbeStrategy(List.of(22, 80), 16) {
+            @Override
+            protected SocketChannel openChannel() throws IOException {
+                throw new SocketException("Too many open files");
+            }
+        };
+
+        // the local failure says nothing about the host, it must not be recorded as down
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> strategy.probe("127.0.0.1", Duration.ofSeconds(1)).get());
+
+        assertInstanceOf(SocketException.class, error.getCause());
+    }
+}